@@ -0,0 +1,205 @@
+package locadora.backend.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache em memória limitado por quantidade de entradas e por tempo de vida (TTL).
+ *
+ * As entradas ficam em um ConcurrentHashMap, então leituras não disputam trava
+ * entre si (o cache de tokens JWT é lido em toda requisição). O limite é
+ * aproximado: quando a quantidade passa do máximo, uma única thread descarta as
+ * expiradas e, se ainda preciso, as de acesso mais antigo até voltar a 90% do
+ * máximo; enquanto isso outras gravações podem ultrapassá-lo por pouco.
+ *
+ * Leituras que não encontram a chave carregam o valor pelo carregador informado.
+ * Cada invalidação avança uma geração: um valor carregado antes de uma invalidação
+ * não é gravado depois dela, evitando que dados antigos voltem ao cache.
+ */
+public class CacheLocal<K, V> {
+
+    // Último acesso só é regravado depois deste intervalo, para entradas muito lidas não disputarem a linha de cache
+    private static final long INTERVALO_ACESSO_NANOS = 1_000_000L;
+
+    private final String nome;
+    private final int tamanhoMaximo;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final AtomicLong geracao = new AtomicLong();
+    private final ReentrantLock reducao = new ReentrantLock();
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder remocoes = new LongAdder();
+
+    public CacheLocal(String nome, int tamanhoMaximo, Duration ttl) {
+        this.nome = nome;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Retorna o valor em cache ou carrega, grava e retorna o valor do carregador.
+     */
+    public V obter(K chave, Supplier<V> carregador) {
+        V valor = buscar(chave);
+        if (valor != null) {
+            acertos.increment();
+            return valor;
+        }
+        falhas.increment();
+
+        long geracaoInicial = geracao.get();
+        valor = carregador.get();
+        if (valor != null && geracao.get() == geracaoInicial) {
+            Entrada<V> entrada = new Entrada<>(valor, System.nanoTime(), ttlNanos);
+            entradas.put(chave, entrada);
+            // Invalidação entre a conferência e a gravação: desfaz só esta entrada
+            if (geracao.get() != geracaoInicial) {
+                entradas.remove(chave, entrada);
+            } else {
+                limitarTamanho();
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Grava (ou substitui) o valor, renovando o tempo de vida
+     */
+    public void gravar(K chave, V valor) {
+        entradas.put(chave, new Entrada<>(valor, System.nanoTime(), ttlNanos));
+        limitarTamanho();
+    }
+
+    /**
+     * Grava com tempo de vida próprio, limitado ao do cache
+     */
+    public void gravar(K chave, V valor, Duration ttl) {
+        long ttlEntrada = Math.min(ttl.toNanos(), ttlNanos);
+        if (ttlEntrada <= 0) {
+            return;
+        }
+        entradas.put(chave, new Entrada<>(valor, System.nanoTime(), ttlEntrada));
+        limitarTamanho();
+    }
+
+    /**
+     * Valor em cache (contando acerto/falha) ou null, sem carregar
+     */
+    public V obterSePresente(K chave) {
+        V valor = buscar(chave);
+        if (valor != null) {
+            acertos.increment();
+        } else {
+            falhas.increment();
+        }
+        return valor;
+    }
+
+    public void invalidar(K chave) {
+        geracao.incrementAndGet();
+        entradas.remove(chave);
+    }
+
+    public void invalidarTodos() {
+        geracao.incrementAndGet();
+        entradas.clear();
+    }
+
+    public Estatisticas estatisticas() {
+        long totalAcertos = acertos.sum();
+        long totalFalhas = falhas.sum();
+        long leituras = totalAcertos + totalFalhas;
+        double taxaAcerto = leituras == 0 ? 0.0 : (double) totalAcertos / leituras;
+        return new Estatisticas(nome, totalAcertos, totalFalhas, remocoes.sum(), taxaAcerto,
+                entradas.size(), tamanhoMaximo);
+    }
+
+    private V buscar(K chave) {
+        Entrada<V> entrada = entradas.get(chave);
+        if (entrada == null) {
+            return null;
+        }
+        long agora = System.nanoTime();
+        if (entrada.expirada(agora)) {
+            if (entradas.remove(chave, entrada)) {
+                remocoes.increment();
+            }
+            return null;
+        }
+        if (agora - entrada.ultimoAcesso > INTERVALO_ACESSO_NANOS) {
+            entrada.ultimoAcesso = agora;
+        }
+        return entrada.valor;
+    }
+
+    /**
+     * Acima do máximo, descarta expiradas e depois as de acesso mais antigo até 90% do máximo.
+     * Se outra thread já estiver reduzindo, não espera por ela.
+     */
+    private void limitarTamanho() {
+        if (entradas.size() <= tamanhoMaximo || !reducao.tryLock()) {
+            return;
+        }
+        try {
+            long agora = System.nanoTime();
+            List<Map.Entry<K, Entrada<V>>> vivas = new ArrayList<>(entradas.size());
+            for (Map.Entry<K, Entrada<V>> item : entradas.entrySet()) {
+                if (item.getValue().expirada(agora)) {
+                    if (entradas.remove(item.getKey(), item.getValue())) {
+                        remocoes.increment();
+                    }
+                } else {
+                    vivas.add(item);
+                }
+            }
+
+            int alvo = tamanhoMaximo - tamanhoMaximo / 10;
+            int excedente = entradas.size() - alvo;
+            if (excedente <= 0 || entradas.size() <= tamanhoMaximo) {
+                return;
+            }
+            vivas.sort((a, b) -> Long.compare(a.getValue().ultimoAcesso - agora, b.getValue().ultimoAcesso - agora));
+            for (int i = 0; i < vivas.size() && excedente > 0; i++) {
+                if (entradas.remove(vivas.get(i).getKey(), vivas.get(i).getValue())) {
+                    remocoes.increment();
+                    excedente--;
+                }
+            }
+        } finally {
+            reducao.unlock();
+        }
+    }
+
+    private static final class Entrada<V> {
+        final V valor;
+        final long expiraEm;
+        // Aproximado: gravado sem sincronização e só de tempos em tempos
+        long ultimoAcesso;
+
+        Entrada(V valor, long agora, long ttlNanos) {
+            this.valor = valor;
+            this.expiraEm = agora + ttlNanos;
+            this.ultimoAcesso = agora;
+        }
+
+        boolean expirada(long agora) {
+            return agora - expiraEm >= 0;
+        }
+    }
+
+    /**
+     * Contadores do cache para monitoramento
+     */
+    public record Estatisticas(String nome, long acertos, long falhas, long remocoes,
+                               double taxaAcerto, int tamanho, int tamanhoMaximo) {
+    }
+}
@@ -0,0 +1,71 @@
+package locadora.backend.cache;
+
+import java.util.Collection;
+
+/**
+ * Filtro de Bloom imutável para chaves long: "não contém" é garantido; "talvez contém"
+ * erra na taxa de falsos positivos escolhida. Usado como teste rápido antes de um
+ * conjunto exato, quando quase todas as consultas são de chaves ausentes.
+ */
+public final class FiltroBloom {
+
+    private static final FiltroBloom VAZIO = new FiltroBloom(new long[1], 1);
+
+    private final long[] bits;
+    private final int funcoes;
+
+    private FiltroBloom(long[] bits, int funcoes) {
+        this.bits = bits;
+        this.funcoes = funcoes;
+    }
+
+    public static FiltroBloom vazio() {
+        return VAZIO;
+    }
+
+    public static FiltroBloom de(Collection<Long> chaves, double taxaFalsosPositivos) {
+        if (chaves.isEmpty()) {
+            return VAZIO;
+        }
+        // m = -n ln(p) / ln(2)^2 bits e k = m/n ln(2) funções; no mínimo 64 bits
+        int n = chaves.size();
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(taxaFalsosPositivos) / (Math.log(2) * Math.log(2))));
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        FiltroBloom filtro = new FiltroBloom(new long[(int) ((m + 63) >>> 6)], k);
+        for (Long chave : chaves) {
+            filtro.adicionar(chave);
+        }
+        return filtro;
+    }
+
+    public boolean talvezContem(long chave) {
+        long h1 = misturar(chave);
+        long h2 = misturar(h1) | 1;
+        long total = (long) bits.length << 6;
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, total);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void adicionar(long chave) {
+        long h1 = misturar(chave);
+        long h2 = misturar(h1) | 1;
+        long total = (long) bits.length << 6;
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, total);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    // Finalizador do SplitMix64: ids sequenciais viram bits bem espalhados
+    private static long misturar(long valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
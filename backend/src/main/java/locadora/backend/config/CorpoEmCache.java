@@ -0,0 +1,60 @@
+package locadora.backend.config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Requisição cujo corpo já foi lido por um filtro e é entregue de novo ao controller
+ */
+final class CorpoEmCache extends HttpServletRequestWrapper {
+
+    private final byte[] corpo;
+
+    CorpoEmCache(HttpServletRequest request, byte[] corpo) {
+        super(request);
+        this.corpo = corpo;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+        return new ServletInputStream() {
+            @Override
+            public int read() {
+                return entrada.read();
+            }
+
+            @Override
+            public int read(byte[] destino, int inicio, int tamanho) {
+                return entrada.read(destino, inicio, tamanho);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return entrada.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+    }
+}
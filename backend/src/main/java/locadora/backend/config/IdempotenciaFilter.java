@@ -0,0 +1,212 @@
+package locadora.backend.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import locadora.backend.cache.CacheLocal;
+import locadora.backend.exception.GlobalExceptionHandler.ErrorResponse;
+
+/**
+ * Suporte ao cabeçalho Idempotency-Key na criação de locações e nas transições
+ * de status (finalizar/cancelar).
+ *
+ * A primeira requisição com uma chave grava a impressão digital do pedido (método,
+ * caminho e SHA-256 do corpo) e, ao terminar, a resposta. Repetições com a mesma
+ * chave recebem a resposta gravada sem passar pelo LocacaoService nem pelo banco.
+ * As chaves são separadas por usuário autenticado e ficam em memória (por instância),
+ * limitadas por quantidade e tempo de vida. Respostas 5xx e 409 (conflitos que pedem
+ * nova tentativa) não são gravadas: a chave é liberada para o cliente repetir.
+ *
+ * Chaves em processamento ficam em um mapa à parte, fora do LRU: um pico de chaves
+ * novas não pode descartar a marca de uma requisição ainda em andamento e deixar
+ * uma repetição executar de novo. O mapa só guarda requisições em curso.
+ *
+ * O corpo é lido em memória para a impressão digital, com o mesmo limite do
+ * LimiteAutenticacaoFilter: corpo só com Content-Length declarado (411 sem ele) e de até
+ * TAMANHO_MAXIMO_CORPO bytes (413 acima disso). Sem Content-Length nem Transfer-Encoding a
+ * requisição não tem corpo (PATCH de finalizar/cancelar) e segue com corpo vazio.
+ */
+@Component
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETICAO = "Idempotency-Replayed";
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private static final Pattern TRANSICAO_LOCACAO = Pattern.compile("^/api/locacoes/\\d+/(finalizar|cancelar)$");
+
+    private final CacheLocal<String, Registro> registros;
+    // Chave -> impressão das requisições em processamento
+    private final Map<String, String> emAndamento = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+
+    private record Registro(String impressao, RespostaGravada resposta) {
+    }
+
+    private record RespostaGravada(int status, String contentType, byte[] corpo) {
+    }
+
+    public IdempotenciaFilter(
+            ObjectMapper objectMapper,
+            @Value("${idempotencia.tamanho-maximo:10000}") int tamanhoMaximo,
+            @Value("${idempotencia.ttl-segundos:86400}") long ttlSegundos) {
+        this.objectMapper = objectMapper;
+        this.registros = new CacheLocal<>("idempotencia.locacoes", tamanhoMaximo, Duration.ofSeconds(ttlSegundos));
+    }
+
+    public CacheLocal.Estatisticas estatisticas() {
+        return registros.estatisticas();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (request.getHeader(CABECALHO) == null) {
+            return true;
+        }
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        return switch (request.getMethod()) {
+            case "POST" -> !caminho.equals("/api/locacoes");
+            case "PATCH" -> !TRANSICAO_LOCACAO.matcher(caminho).matches();
+            default -> true;
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        // Sem usuário autenticado a requisição será recusada adiante; não há o que registrar
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao == null || !autenticacao.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String chaveCliente = request.getHeader(CABECALHO).trim();
+        if (chaveCliente.isEmpty() || chaveCliente.length() > TAMANHO_MAXIMO_CHAVE) {
+            escreverErro(response, HttpStatus.BAD_REQUEST,
+                    CABECALHO + " deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+            return;
+        }
+
+        long tamanho = request.getContentLengthLong();
+        if (tamanho < 0 && request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null) {
+            escreverErro(response, HttpStatus.LENGTH_REQUIRED, "Content-Length obrigatório");
+            return;
+        }
+        if (tamanho > LimiteAutenticacaoFilter.TAMANHO_MAXIMO_CORPO) {
+            escreverErro(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Corpo da requisição maior que " + LimiteAutenticacaoFilter.TAMANHO_MAXIMO_CORPO + " bytes");
+            return;
+        }
+        // Nunca mais que o declarado (e já limitado) em Content-Length
+        byte[] corpo = tamanho > 0 ? request.getInputStream().readNBytes((int) tamanho) : new byte[0];
+        String impressao = calcularImpressao(request, corpo);
+        String chave = autenticacao.getName() + "\n" + chaveCliente;
+
+        if (responderGravada(registros.obterSePresente(chave), impressao, response)) {
+            return;
+        }
+        String emProcessamento = emAndamento.putIfAbsent(chave, impressao);
+        if (emProcessamento != null) {
+            if (!emProcessamento.equals(impressao)) {
+                escreverErro(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        CABECALHO + " já utilizada em uma requisição diferente");
+            } else {
+                escreverErro(response, HttpStatus.CONFLICT,
+                        "Requisição com esta " + CABECALHO + " ainda em processamento, tente novamente");
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper respostaEmCache = new ContentCachingResponseWrapper(response);
+        try {
+            // A anterior pode ter gravado a resposta e saído do mapa entre a consulta e a marca
+            if (responderGravada(registros.obterSePresente(chave), impressao, response)) {
+                return;
+            }
+            filterChain.doFilter(new CorpoEmCache(request, corpo), respostaEmCache);
+            int status = respostaEmCache.getStatus();
+            if (status < 500 && status != HttpStatus.CONFLICT.value()) {
+                registros.gravar(chave, new Registro(impressao, new RespostaGravada(
+                        status, respostaEmCache.getContentType(), respostaEmCache.getContentAsByteArray())));
+            }
+        } finally {
+            // Só depois de gravar: uma repetição nunca encontra a chave livre sem a resposta
+            emAndamento.remove(chave);
+            respostaEmCache.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Responde com o registro já concluído da chave; false se não houver registro
+     */
+    private boolean responderGravada(Registro existente, String impressao, HttpServletResponse response)
+            throws IOException {
+        if (existente == null) {
+            return false;
+        }
+        if (!existente.impressao().equals(impressao)) {
+            escreverErro(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    CABECALHO + " já utilizada em uma requisição diferente");
+        } else {
+            repetir(existente.resposta(), response);
+        }
+        return true;
+    }
+
+    private void repetir(RespostaGravada resposta, HttpServletResponse response) throws IOException {
+        response.setStatus(resposta.status());
+        if (resposta.contentType() != null) {
+            response.setContentType(resposta.contentType());
+        }
+        response.setHeader(CABECALHO_REPETICAO, "true");
+        response.setContentLength(resposta.corpo().length);
+        response.getOutputStream().write(resposta.corpo());
+    }
+
+    private void escreverErro(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(status.value(), mensagem, LocalDateTime.now()));
+    }
+
+    private static String calcularImpressao(HttpServletRequest request, byte[] corpo) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(sha256.digest(corpo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
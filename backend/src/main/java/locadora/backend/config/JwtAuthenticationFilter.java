@@ -16,6 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -39,43 +40,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        try {
-            // Extrair token (remover "Bearer ")
-            final String jwt = authHeader.substring(7);
-            
-            // Extrair email do token
-            final String userEmail = jwtService.extractEmail(jwt);
+        // Extrair token (remover "Bearer ") e verificar assinatura/validade uma única vez
+        final String jwt = authHeader.substring(7);
+        Optional<JwtService.TokenVerificado> verificado = jwtService.verificar(jwt);
 
-            // Se email existe e usuário não está autenticado ainda
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                
-                // Validar token
-                if (jwtService.isTokenValid(jwt)) {
-                    
-                    // Extrair a role do token
-                    String role = jwtService.extractRole(jwt);
-                    
-                    // Criar authority com a role
-                    SimpleGrantedAuthority authority = new SimpleGrantedAuthority(role);
-                    
-                    // Criar autenticação com a authority
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userEmail,
-                            null,
-                            List.of(authority)
-                    );
+        // Se o token é válido e o usuário não está autenticado ainda
+        if (verificado.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                    // Adicionar detalhes da requisição
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
+            // Principal com id, email e role do token: os controllers não precisam buscar o usuário
+            JwtService.TokenVerificado token = verificado.get();
+            UsuarioAutenticado usuario = new UsuarioAutenticado(token.userId(), token.email(), token.role());
 
-                    // Setar no contexto de segurança
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Erro ao processar JWT: " + e.getMessage());
+            // Criar authority com a role do token
+            SimpleGrantedAuthority authority = new SimpleGrantedAuthority(token.role());
+
+            // Criar autenticação com a authority
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    usuario,
+                    null,
+                    List.of(authority)
+            );
+
+            // Adicionar detalhes da requisição
+            authToken.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request)
+            );
+
+            // Setar no contexto de segurança
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         // Continuar a cadeia de filtros
@@ -0,0 +1,277 @@
+package locadora.backend.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import locadora.backend.exception.GlobalExceptionHandler.ErrorResponse;
+
+/**
+ * Limite de tentativas (token bucket) no login, no cadastro público e na renovação de
+ * sessão (refresh), antes do AuthController.
+ *
+ * Login e cadastro têm um balde por IP e outro por email; o refresh, só por IP (o corpo
+ * traz apenas o token). Capacidade e recarga por minuto são configuráveis (capacidade 0
+ * desliga a dimensão). O IP é conferido primeiro, sem ler o corpo;
+ * só requisições aceitas por IP têm o campo "email" extraído do JSON. Recusas respondem 429
+ * com Retry-After sem tocar no banco nem calcular hash de senha.
+ *
+ * O corpo é lido em memória, então só é aceito com Content-Length declarado (411 sem ele)
+ * e de até TAMANHO_MAXIMO_CORPO bytes (413 acima disso); login e cadastro cabem com folga.
+ *
+ * Os baldes ficam em memória (por instância), atualizados por compare-and-set. Baldes que já
+ * recarregaram por completo equivalem a baldes novos e são removidos periodicamente.
+ */
+@Component
+public class LimiteAutenticacaoFilter extends OncePerRequestFilter {
+
+    public static final int TAMANHO_MAXIMO_CORPO = 8 * 1024;
+    // Dimensão por email do refresh, cujo corpo não tem email
+    private static final Limite DESLIGADO = Limite.de("desligado", 0, 0);
+
+    private final ObjectMapper objectMapper;
+    private final int maximoBaldes;
+
+    private final Limite loginPorIp;
+    private final Limite loginPorEmail;
+    private final Limite cadastroPorIp;
+    private final Limite cadastroPorEmail;
+    private final Limite refreshPorIp;
+
+    private final ConcurrentHashMap<String, Balde> baldes = new ConcurrentHashMap<>();
+
+    /**
+     * Capacidade do balde e fichas repostas por nanossegundo
+     */
+    private record Limite(String nome, int capacidade, double fichasPorNano) {
+
+        static Limite de(String nome, int capacidade, int porMinuto) {
+            return new Limite(nome, capacidade, porMinuto / (double) TimeUnit.MINUTES.toNanos(1));
+        }
+
+        boolean ativo() {
+            return capacidade > 0 && fichasPorNano > 0;
+        }
+    }
+
+    public LimiteAutenticacaoFilter(
+            ObjectMapper objectMapper,
+            @Value("${limite.autenticacao.maximo-baldes:100000}") int maximoBaldes,
+            @Value("${limite.autenticacao.login.ip.capacidade:20}") int loginIpCapacidade,
+            @Value("${limite.autenticacao.login.ip.por-minuto:10}") int loginIpPorMinuto,
+            @Value("${limite.autenticacao.login.email.capacidade:5}") int loginEmailCapacidade,
+            @Value("${limite.autenticacao.login.email.por-minuto:2}") int loginEmailPorMinuto,
+            @Value("${limite.autenticacao.cadastro.ip.capacidade:5}") int cadastroIpCapacidade,
+            @Value("${limite.autenticacao.cadastro.ip.por-minuto:1}") int cadastroIpPorMinuto,
+            @Value("${limite.autenticacao.cadastro.email.capacidade:3}") int cadastroEmailCapacidade,
+            @Value("${limite.autenticacao.cadastro.email.por-minuto:1}") int cadastroEmailPorMinuto,
+            @Value("${limite.autenticacao.refresh.ip.capacidade:30}") int refreshIpCapacidade,
+            @Value("${limite.autenticacao.refresh.ip.por-minuto:20}") int refreshIpPorMinuto) {
+        this.objectMapper = objectMapper;
+        this.maximoBaldes = maximoBaldes;
+        this.loginPorIp = Limite.de("login.ip", loginIpCapacidade, loginIpPorMinuto);
+        this.loginPorEmail = Limite.de("login.email", loginEmailCapacidade, loginEmailPorMinuto);
+        this.cadastroPorIp = Limite.de("cadastro.ip", cadastroIpCapacidade, cadastroIpPorMinuto);
+        this.cadastroPorEmail = Limite.de("cadastro.email", cadastroEmailCapacidade, cadastroEmailPorMinuto);
+        this.refreshPorIp = Limite.de("refresh.ip", refreshIpCapacidade, refreshIpPorMinuto);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !ehLogin(request) && !ehCadastro(request) && !ehRefresh(request);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Limite porIp;
+        Limite porEmail;
+        if (ehLogin(request)) {
+            porIp = loginPorIp;
+            porEmail = loginPorEmail;
+        } else if (ehCadastro(request)) {
+            porIp = cadastroPorIp;
+            porEmail = cadastroPorEmail;
+        } else {
+            porIp = refreshPorIp;
+            porEmail = DESLIGADO;
+        }
+
+        // IP primeiro: uma enxurrada de um mesmo endereço é recusada sem ler o corpo
+        long esperaNanos = consumir(porIp, request.getRemoteAddr());
+        if (esperaNanos > 0) {
+            recusar(response, esperaNanos);
+            return;
+        }
+
+        long tamanho = request.getContentLengthLong();
+        if (tamanho < 0) {
+            escreverErro(response, HttpStatus.LENGTH_REQUIRED, "Content-Length obrigatório");
+            return;
+        }
+        if (tamanho > TAMANHO_MAXIMO_CORPO) {
+            escreverErro(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Corpo da requisição maior que " + TAMANHO_MAXIMO_CORPO + " bytes");
+            return;
+        }
+
+        if (porEmail.ativo()) {
+            // Nunca mais que o declarado (e já limitado) em Content-Length
+            byte[] corpo = request.getInputStream().readNBytes((int) tamanho);
+            String email = extrairEmail(corpo);
+            if (email != null) {
+                esperaNanos = consumir(porEmail, email.trim().toLowerCase(Locale.ROOT));
+                if (esperaNanos > 0) {
+                    recusar(response, esperaNanos);
+                    return;
+                }
+            }
+            filterChain.doFilter(new CorpoEmCache(request, corpo), response);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Remove baldes que já recarregaram por completo (equivalentes a baldes novos)
+     */
+    @Scheduled(fixedDelayString = "${limite.autenticacao.limpeza-ms:60000}")
+    public void removerOciosos() {
+        long agora = System.nanoTime();
+        baldes.values().removeIf(balde -> balde.cheio(agora));
+    }
+
+    /**
+     * 0 se havia ficha; senão, nanossegundos até a próxima ficha
+     */
+    private long consumir(Limite limite, String identificador) {
+        if (!limite.ativo()) {
+            return 0;
+        }
+        String chave = limite.nome() + "\n" + identificador;
+        Balde balde = baldes.get(chave);
+        if (balde == null) {
+            // Mapa cheio (ex.: emails aleatórios): sem novos baldes até a limpeza; o limite por IP continua valendo
+            if (baldes.size() >= maximoBaldes) {
+                return 0;
+            }
+            balde = baldes.computeIfAbsent(chave, c -> new Balde(limite, System.nanoTime()));
+        }
+        return balde.consumir(System.nanoTime());
+    }
+
+    private String extrairEmail(byte[] corpo) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(corpo)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                if ("email".equals(campo)) {
+                    return valor == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            // JSON inválido: o controller responde 400; só o limite por IP se aplica
+            return null;
+        }
+    }
+
+    private void recusar(HttpServletResponse response, long esperaNanos) throws IOException {
+        long segundos = Math.max(1, (long) Math.ceil(esperaNanos / 1e9));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        escreverErro(response, HttpStatus.TOO_MANY_REQUESTS, "Muitas tentativas, tente novamente em " + segundos + " s");
+    }
+
+    private void escreverErro(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(status.value(), mensagem, LocalDateTime.now()));
+    }
+
+    private static boolean ehLogin(HttpServletRequest request) {
+        return caminho(request).equals("/api/auth/login");
+    }
+
+    private static boolean ehRefresh(HttpServletRequest request) {
+        return caminho(request).equals("/api/auth/refresh");
+    }
+
+    private static boolean ehCadastro(HttpServletRequest request) {
+        String caminho = caminho(request);
+        return caminho.equals("/api/auth/register") || caminho.equals("/api/auth/register/cliente");
+    }
+
+    private static String caminho(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Token bucket sem trava: o estado (fichas e instante da última recarga) é trocado por CAS
+     */
+    private static final class Balde {
+
+        private record Estado(double fichas, long atualizadoEm) {
+        }
+
+        private final Limite limite;
+        private final AtomicReference<Estado> estado;
+
+        Balde(Limite limite, long agora) {
+            this.limite = limite;
+            this.estado = new AtomicReference<>(new Estado(limite.capacidade(), agora));
+        }
+
+        long consumir(long agora) {
+            while (true) {
+                Estado atual = estado.get();
+                double fichas = recarregar(atual, agora);
+                if (fichas < 1) {
+                    return (long) Math.ceil((1 - fichas) / limite.fichasPorNano());
+                }
+                if (estado.compareAndSet(atual, new Estado(fichas - 1, Math.max(agora, atual.atualizadoEm())))) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean cheio(long agora) {
+            return recarregar(estado.get(), agora) >= limite.capacidade();
+        }
+
+        private double recarregar(Estado atual, long agora) {
+            long decorrido = Math.max(0, agora - atual.atualizadoEm());
+            return Math.min(limite.capacidade(), atual.fichas() + decorrido * limite.fichasPorNano());
+        }
+    }
+}
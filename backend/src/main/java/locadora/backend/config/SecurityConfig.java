@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -13,6 +14,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -28,6 +30,8 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final IdempotenciaFilter idempotenciaFilter;
+    private final LimiteAutenticacaoFilter limiteAutenticacaoFilter;
 
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
@@ -45,6 +49,8 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .httpBasic(httpBasic -> httpBasic.disable())
                 .formLogin(form -> form.disable())
+                // Sem token válido (expirado ou revogado): 401, para o cliente renovar com o refresh token
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .authorizeHttpRequests(auth -> auth
                         // ===== H2 CONSOLE (APENAS DESENVOLVIMENTO) =====
                         .requestMatchers("/h2-console/**").permitAll()
@@ -53,6 +59,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/login").permitAll()
                         .requestMatchers("/api/auth/register").permitAll()
                         .requestMatchers("/api/auth/register/cliente").permitAll()
+                        .requestMatchers("/api/auth/refresh").permitAll()
+                        .requestMatchers("/api/auth/logout").permitAll()
                         .requestMatchers("/api/auth/test").permitAll()
 
                         // Auth - Endpoint protegido
@@ -61,6 +69,10 @@ public class SecurityConfig {
                         // Veículos - Listagem pública
                         .requestMatchers(HttpMethod.GET, "/api/veiculos").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/veiculos/disponiveis").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/veiculos/livres").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/veiculos/pagina").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/veiculos/pesquisa").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/veiculos/facetas").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/veiculos/{id}").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/veiculos/categoria/**").permitAll()
 
@@ -70,6 +82,12 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PATCH, "/api/veiculos/**").hasRole("FUNCIONARIO")
                         .requestMatchers(HttpMethod.DELETE, "/api/veiculos/**").hasRole("FUNCIONARIO")
 
+                        // Monitoramento - Apenas funcionários
+                        .requestMatchers("/api/monitoramento/**").hasRole("FUNCIONARIO")
+
+                        // Relatórios - Apenas funcionários
+                        .requestMatchers("/api/relatorios/**").hasRole("FUNCIONARIO")
+
                         // Usuários e Locações - Autenticados
                         .requestMatchers("/api/usuarios/**").authenticated()
                         .requestMatchers("/api/locacoes/**").authenticated()
@@ -77,7 +95,11 @@ public class SecurityConfig {
                         .anyRequest().authenticated())
                 // IMPORTANTE: Permitir frames para H2 Console
                 .headers(headers -> headers.frameOptions(frame -> frame.disable()))
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Login e cadastro: tentativas em excesso são recusadas antes de qualquer outro processamento
+                .addFilterBefore(limiteAutenticacaoFilter, JwtAuthenticationFilter.class)
+                // Depois da autenticação: as chaves de idempotência são separadas por usuário
+                .addFilterAfter(idempotenciaFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -93,10 +115,11 @@ public class SecurityConfig {
                 "GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
 
         configuration.setAllowedHeaders(Arrays.asList(
-                "Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With"));
+                "Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With", "If-None-Match",
+                IdempotenciaFilter.CABECALHO));
 
         configuration.setExposedHeaders(Arrays.asList(
-                "Authorization", "Content-Type"));
+                "Authorization", "Content-Type", "ETag", "Retry-After", IdempotenciaFilter.CABECALHO_REPETICAO));
 
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
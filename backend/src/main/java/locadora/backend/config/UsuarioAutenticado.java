@@ -0,0 +1,21 @@
+package locadora.backend.config;
+
+import java.security.Principal;
+
+/**
+ * Usuário autenticado montado a partir das claims do JWT (sem consultar a tabela de usuários).
+ * Disponível nos controllers via {@code @AuthenticationPrincipal}; getName() devolve o email.
+ */
+public record UsuarioAutenticado(Long id, String email, String role) implements Principal {
+
+    public static final String ROLE_FUNCIONARIO = "ROLE_FUNCIONARIO";
+
+    public boolean isFuncionario() {
+        return ROLE_FUNCIONARIO.equals(role);
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -3,6 +3,7 @@ package locadora.backend.controller;
 import jakarta.validation.Valid;
 import locadora.backend.dto.AuthResponse;
 import locadora.backend.dto.LoginRequest;
+import locadora.backend.dto.RefreshTokenRequest;
 import locadora.backend.dto.RegisterRequest;
 import locadora.backend.service.AuthService;
 import lombok.RequiredArgsConstructor;
@@ -62,6 +63,26 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * POST /api/auth/refresh
+     * Novo token de acesso a partir do refresh token (que é trocado por outro a cada uso)
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.renovar(request.getRefreshToken());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * POST /api/auth/logout
+     * Invalida o refresh token (o token de acesso expira sozinho em poucos minutos)
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * GET /api/auth/test
      * Endpoint de teste público
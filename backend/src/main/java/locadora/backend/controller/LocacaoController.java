@@ -1,22 +1,27 @@
 package locadora.backend.controller;
 
 import jakarta.validation.Valid;
+import locadora.backend.config.UsuarioAutenticado;
 import locadora.backend.dto.LocacaoCreateDTO;
 import locadora.backend.dto.LocacaoDTO;
+import locadora.backend.dto.LocacaoFiltroDTO;
+import locadora.backend.dto.PaginaDTO;
+import locadora.backend.dto.TotaisLocacaoDTO;
 import locadora.backend.model.StatusLocacao;
-import locadora.backend.model.Usuario;
-import locadora.backend.repository.UsuarioRepository;
 import locadora.backend.service.LocacaoService;
 import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/locacoes")
@@ -25,7 +30,6 @@ import java.util.stream.Collectors;
 public class LocacaoController {
 
     private final LocacaoService locacaoService;
-    private final UsuarioRepository usuarioRepository;
 
     /**
      * GET /api/locacoes
@@ -34,16 +38,12 @@ public class LocacaoController {
      * - Cliente: vê apenas as suas
      */
     @GetMapping
-    public ResponseEntity<List<LocacaoDTO>> listarTodas() {
-        String email = getEmailUsuarioAutenticado();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
+    public ResponseEntity<List<LocacaoDTO>> listarTodas(@AuthenticationPrincipal UsuarioAutenticado usuario) {
         // Se for funcionário, lista todas. Se for cliente, lista apenas as suas
-        if (usuario.getIsFuncionario()) {
+        if (usuario.isFuncionario()) {
             return ResponseEntity.ok(locacaoService.listarTodas());
         } else {
-            return ResponseEntity.ok(locacaoService.listarPorUsuario(usuario.getId()));
+            return ResponseEntity.ok(locacaoService.listarPorUsuario(usuario.id()));
         }
     }
 
@@ -52,49 +52,33 @@ public class LocacaoController {
      * Listar locações do usuário autenticado
      */
     @GetMapping("/minhas")
-    public ResponseEntity<List<LocacaoDTO>> listarMinhasLocacoes() {
-        String email = getEmailUsuarioAutenticado();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        List<LocacaoDTO> locacoes = locacaoService.listarPorUsuario(usuario.getId());
+    public ResponseEntity<List<LocacaoDTO>> listarMinhasLocacoes(@AuthenticationPrincipal UsuarioAutenticado usuario) {
+        List<LocacaoDTO> locacoes = locacaoService.listarPorUsuario(usuario.id());
         return ResponseEntity.ok(locacoes);
     }
 
     /**
      * GET /api/locacoes/minhas/ativas
-     * Listar locações ativas do usuário autenticado
+     * Locações ativas do usuário autenticado, paginadas por cursor
+     * Filtros: retiradaDe, retiradaAte (datas ISO); paginação: cursor, tamanho
      */
     @GetMapping("/minhas/ativas")
-    public ResponseEntity<List<LocacaoDTO>> listarMinhasLocacoesAtivas() {
-        String email = getEmailUsuarioAutenticado();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        List<LocacaoDTO> locacoes = locacaoService.listarPorUsuario(usuario.getId())
-            .stream()
-            .filter(l -> l.getStatus() == StatusLocacao.ATIVA)
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(locacoes);
+    public ResponseEntity<PaginaDTO<LocacaoDTO>> listarMinhasLocacoesAtivas(
+            @AuthenticationPrincipal UsuarioAutenticado usuario, LocacaoFiltroDTO filtro) {
+        filtro.setStatus(StatusLocacao.ATIVA);
+        return ResponseEntity.ok(locacaoService.listarPaginaPorUsuario(usuario.id(), filtro));
     }
 
     /**
      * GET /api/locacoes/minhas/finalizadas
-     * Listar locações finalizadas do usuário autenticado
+     * Locações finalizadas do usuário autenticado, paginadas por cursor
+     * Filtros: retiradaDe, retiradaAte (datas ISO); paginação: cursor, tamanho
      */
     @GetMapping("/minhas/finalizadas")
-    public ResponseEntity<List<LocacaoDTO>> listarMinhasLocacoesFinalizadas() {
-        String email = getEmailUsuarioAutenticado();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        List<LocacaoDTO> locacoes = locacaoService.listarPorUsuario(usuario.getId())
-            .stream()
-            .filter(l -> l.getStatus() == StatusLocacao.FINALIZADA)
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(locacoes);
+    public ResponseEntity<PaginaDTO<LocacaoDTO>> listarMinhasLocacoesFinalizadas(
+            @AuthenticationPrincipal UsuarioAutenticado usuario, LocacaoFiltroDTO filtro) {
+        filtro.setStatus(StatusLocacao.FINALIZADA);
+        return ResponseEntity.ok(locacaoService.listarPaginaPorUsuario(usuario.id(), filtro));
     }
 
     /**
@@ -112,15 +96,12 @@ public class LocacaoController {
      * Buscar locação específica por ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<LocacaoDTO> buscarPorId(@PathVariable Long id) {
+    public ResponseEntity<LocacaoDTO> buscarPorId(@PathVariable Long id,
+                                                  @AuthenticationPrincipal UsuarioAutenticado usuario) {
         LocacaoDTO locacao = locacaoService.buscarPorId(id);
         
         // Verificar se a locação pertence ao usuário autenticado (se não for funcionário)
-        String email = getEmailUsuarioAutenticado();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        if (!usuario.getIsFuncionario() && !locacao.getUsuario().getId().equals(usuario.getId())) {
+        if (!usuario.isFuncionario() && !locacao.getUsuario().getId().equals(usuario.id())) {
             throw new RuntimeException("Acesso negado");
         }
         
@@ -132,9 +113,9 @@ public class LocacaoController {
      * Criar nova locação
      */
     @PostMapping
-    public ResponseEntity<LocacaoDTO> criar(@Valid @RequestBody LocacaoCreateDTO dto) {
-        String email = getEmailUsuarioAutenticado();
-        LocacaoDTO locacao = locacaoService.criar(dto, email);
+    public ResponseEntity<LocacaoDTO> criar(@Valid @RequestBody LocacaoCreateDTO dto,
+                                            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        LocacaoDTO locacao = locacaoService.criar(dto, usuario.id());
         return ResponseEntity.status(HttpStatus.CREATED).body(locacao);
     }
 
@@ -143,9 +124,10 @@ public class LocacaoController {
      * Finalizar uma locação (cliente finaliza a sua, funcionário pode finalizar qualquer uma)
      */
     @PatchMapping("/{id}/finalizar")
-    public ResponseEntity<LocacaoDTO> finalizar(@PathVariable Long id) {
+    public ResponseEntity<LocacaoDTO> finalizar(@PathVariable Long id,
+                                               @AuthenticationPrincipal UsuarioAutenticado usuario) {
         // Verificar propriedade da locação (se não for funcionário)
-        verificarPropriedadeOuFuncionario(id);
+        verificarPropriedadeOuFuncionario(id, usuario);
         
         LocacaoDTO locacao = locacaoService.finalizar(id);
         return ResponseEntity.ok(locacao);
@@ -156,9 +138,10 @@ public class LocacaoController {
      * Cancelar uma locação (cliente cancela a sua, funcionário pode cancelar qualquer uma)
      */
     @PatchMapping("/{id}/cancelar")
-    public ResponseEntity<LocacaoDTO> cancelar(@PathVariable Long id) {
+    public ResponseEntity<LocacaoDTO> cancelar(@PathVariable Long id,
+                                               @AuthenticationPrincipal UsuarioAutenticado usuario) {
         // Verificar propriedade da locação (se não for funcionário)
-        verificarPropriedadeOuFuncionario(id);
+        verificarPropriedadeOuFuncionario(id, usuario);
         
         LocacaoDTO locacao = locacaoService.cancelar(id);
         return ResponseEntity.ok(locacao);
@@ -166,34 +149,32 @@ public class LocacaoController {
 
     /**
      * GET /api/locacoes/resumo
-     * Obter resumo de locações por status
+     * Obter resumo de locações por status do usuário autenticado
+     * Filtros opcionais: retiradaDe, retiradaAte (datas ISO), categoria; porCategoria=true detalha por categoria
      */
     @GetMapping("/resumo")
-    public ResponseEntity<ResumoLocacoes> obterResumo() {
-        String email = getEmailUsuarioAutenticado();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        List<LocacaoDTO> locacoes = locacaoService.listarPorUsuario(usuario.getId());
-        
-        long ativas = locacoes.stream().filter(l -> l.getStatus() == StatusLocacao.ATIVA).count();
-        long finalizadas = locacoes.stream().filter(l -> l.getStatus() == StatusLocacao.FINALIZADA).count();
-        long canceladas = locacoes.stream().filter(l -> l.getStatus() == StatusLocacao.CANCELADA).count();
-        
-        double valorTotal = locacoes.stream()
-            .filter(l -> l.getStatus() == StatusLocacao.FINALIZADA)
-            .mapToDouble(l -> l.getValorTotal().doubleValue())
-            .sum();
-        
-        ResumoLocacoes resumo = new ResumoLocacoes(
-            locacoes.size(),
-            ativas,
-            finalizadas,
-            canceladas,
-            valorTotal
-        );
-        
-        return ResponseEntity.ok(resumo);
+    public ResponseEntity<ResumoLocacoes> obterResumo(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate retiradaDe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate retiradaAte,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(defaultValue = "false") boolean porCategoria,
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(montarResumo(usuario.id(), retiradaDe, retiradaAte, categoria, porCategoria));
+    }
+
+    /**
+     * GET /api/locacoes/resumo/geral
+     * Resumo por status de todas as locações do sistema (apenas funcionários)
+     * Mesmos filtros de /resumo
+     */
+    @GetMapping("/resumo/geral")
+    @PreAuthorize("hasRole('FUNCIONARIO')")
+    public ResponseEntity<ResumoLocacoes> obterResumoGeral(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate retiradaDe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate retiradaAte,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(defaultValue = "false") boolean porCategoria) {
+        return ResponseEntity.ok(montarResumo(null, retiradaDe, retiradaAte, categoria, porCategoria));
     }
 
     /**
@@ -206,11 +187,12 @@ public class LocacaoController {
             @RequestParam String dataRetirada,
             @RequestParam String dataDevolucao) {
         
-        // Aqui você pode implementar lógica para verificar conflitos de datas
-        // Por enquanto, retorna disponível se o veículo estiver marcado como disponível
+        boolean disponivel = locacaoService.verificarDisponibilidade(
+            veiculoId, LocalDate.parse(dataRetirada), LocalDate.parse(dataDevolucao));
         DisponibilidadeResponse response = new DisponibilidadeResponse(
-            true,
-            "Veículo disponível para o período solicitado"
+            disponivel,
+            disponivel ? "Veículo disponível para o período solicitado"
+                       : "Veículo indisponível para o período solicitado"
         );
         
         return ResponseEntity.ok(response);
@@ -219,32 +201,40 @@ public class LocacaoController {
     // ========== MÉTODOS AUXILIARES ==========
 
     /**
-     * Método auxiliar para obter email do usuário autenticado
+     * Resumo a partir dos totais por status (contadores do usuário ou agregação no banco)
      */
-    private String getEmailUsuarioAutenticado() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new RuntimeException("Usuário não autenticado");
+    private ResumoLocacoes montarResumo(Long usuarioId, LocalDate retiradaDe, LocalDate retiradaAte,
+                                        String categoria, boolean porCategoria) {
+        Map<StatusLocacao, TotaisLocacaoDTO> totais =
+            locacaoService.totalizarPorStatus(usuarioId, retiradaDe, retiradaAte, categoria);
+        
+        long total = totais.values().stream().mapToLong(TotaisLocacaoDTO::getQuantidade).sum();
+        
+        ResumoLocacoes resumo = new ResumoLocacoes(
+            total,
+            totais.get(StatusLocacao.ATIVA).getQuantidade(),
+            totais.get(StatusLocacao.FINALIZADA).getQuantidade(),
+            totais.get(StatusLocacao.CANCELADA).getQuantidade(),
+            totais.get(StatusLocacao.FINALIZADA).getValorTotal()
+        );
+        if (porCategoria) {
+            resumo.porCategoria = locacaoService.totalizarPorCategoria(usuarioId, retiradaDe, retiradaAte, categoria);
         }
-        return authentication.getName();
+        return resumo;
     }
 
     /**
      * Método auxiliar para verificar se locação pertence ao usuário OU se é funcionário
      */
-    private void verificarPropriedadeOuFuncionario(Long locacaoId) {
-        String email = getEmailUsuarioAutenticado();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
+    private void verificarPropriedadeOuFuncionario(Long locacaoId, UsuarioAutenticado usuario) {
         // Se for funcionário, pode modificar qualquer locação
-        if (usuario.getIsFuncionario()) {
+        if (usuario.isFuncionario()) {
             return;
         }
         
         // Se for cliente, só pode modificar suas próprias locações
         LocacaoDTO locacao = locacaoService.buscarPorId(locacaoId);
-        if (!locacao.getUsuario().getId().equals(usuario.getId())) {
+        if (!locacao.getUsuario().getId().equals(usuario.id())) {
             throw new RuntimeException("Você não tem permissão para modificar esta locação");
         }
     }
@@ -259,10 +249,12 @@ public class LocacaoController {
         public long ativas;
         public long finalizadas;
         public long canceladas;
-        public double valorTotalGasto;
+        public BigDecimal valorTotalGasto;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public List<TotaisLocacaoDTO> porCategoria;
 
         public ResumoLocacoes(long total, long ativas, long finalizadas,
-                            long canceladas, double valorTotalGasto) {
+                            long canceladas, BigDecimal valorTotalGasto) {
             this.total = total;
             this.ativas = ativas;
             this.finalizadas = finalizadas;
@@ -0,0 +1,53 @@
+package locadora.backend.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import locadora.backend.cache.CacheLocal;
+import locadora.backend.config.IdempotenciaFilter;
+import locadora.backend.service.CacheCatalogoVeiculos;
+import locadora.backend.service.HashSenhas;
+import locadora.backend.service.JwtService;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/monitoramento")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MonitoramentoController {
+
+    private final CacheCatalogoVeiculos cacheCatalogo;
+    private final IdempotenciaFilter idempotenciaFilter;
+    private final JwtService jwtService;
+    private final HashSenhas hashSenhas;
+
+    /**
+     * GET /api/monitoramento/cache
+     * Acertos, falhas e remoções dos caches do catálogo, das chaves de idempotência e dos tokens verificados (apenas funcionários)
+     */
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('FUNCIONARIO')")
+    public ResponseEntity<List<CacheLocal.Estatisticas>> estatisticasCache() {
+        List<CacheLocal.Estatisticas> estatisticas = new ArrayList<>(cacheCatalogo.estatisticas());
+        estatisticas.add(idempotenciaFilter.estatisticas());
+        estatisticas.add(jwtService.estatisticasCache());
+        return ResponseEntity.ok(estatisticas);
+    }
+
+    /**
+     * GET /api/monitoramento/senhas
+     * Ocupação do pool de hash de senhas: threads ativas, fila, recusas e latências (apenas funcionários)
+     */
+    @GetMapping("/senhas")
+    @PreAuthorize("hasRole('FUNCIONARIO')")
+    public ResponseEntity<HashSenhas.Estatisticas> estatisticasSenhas() {
+        return ResponseEntity.ok(hashSenhas.estatisticas());
+    }
+}
@@ -0,0 +1,67 @@
+package locadora.backend.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import locadora.backend.dto.ReceitaPeriodoDTO;
+import locadora.backend.dto.UtilizacaoFrotaDTO;
+import locadora.backend.model.Granularidade;
+import locadora.backend.model.StatusLocacao;
+import locadora.backend.service.ReceitaLocacoes;
+import locadora.backend.service.UtilizacaoFrota;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/relatorios")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class RelatorioController {
+
+    private final UtilizacaoFrota utilizacaoFrota;
+    private final ReceitaLocacoes receitaLocacoes;
+
+    /**
+     * GET /api/relatorios/utilizacao?inicio=2024-01-01&fim=2024-12-31&granularidade=MES
+     * Ocupação da frota, por categoria e (opcionalmente) por veículo (apenas funcionários)
+     * Sem datas: últimos 30 dias até hoje
+     */
+    @GetMapping("/utilizacao")
+    @PreAuthorize("hasRole('FUNCIONARIO')")
+    public ResponseEntity<UtilizacaoFrotaDTO> obterUtilizacao(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = "DIA") Granularidade granularidade,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(defaultValue = "false") boolean incluirVeiculos) {
+        LocalDate ate = fim != null ? fim : LocalDate.now();
+        LocalDate de = inicio != null ? inicio : ate.minusDays(29);
+        return ResponseEntity.ok(utilizacaoFrota.calcular(de, ate, granularidade, categoria, incluirVeiculos));
+    }
+
+    /**
+     * GET /api/relatorios/receita?inicio=2024-01-01&fim=2024-12-31&granularidade=MES&porCategoria=true
+     * Quantidade e valor das locações por data de retirada, por status (apenas funcionários)
+     * Sem datas: últimos 30 dias até hoje
+     */
+    @GetMapping("/receita")
+    @PreAuthorize("hasRole('FUNCIONARIO')")
+    public ResponseEntity<ReceitaPeriodoDTO> obterReceita(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = "DIA") Granularidade granularidade,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) StatusLocacao status,
+            @RequestParam(defaultValue = "false") boolean porCategoria) {
+        LocalDate ate = fim != null ? fim : LocalDate.now();
+        LocalDate de = inicio != null ? inicio : ate.minusDays(29);
+        return ResponseEntity.ok(receitaLocacoes.consultar(de, ate, granularidade, categoria, status, porCategoria));
+    }
+}
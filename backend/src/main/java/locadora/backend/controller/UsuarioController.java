@@ -1,11 +1,16 @@
 package locadora.backend.controller;
 
 import jakarta.validation.Valid;
+import locadora.backend.config.UsuarioAutenticado;
 import locadora.backend.dto.EnderecoDTO;
 import locadora.backend.dto.LocacaoDTO;
+import locadora.backend.dto.LocacaoFiltroDTO;
+import locadora.backend.dto.PaginaDTO;
 import locadora.backend.dto.RegisterRequest;
+import locadora.backend.dto.TotaisLocacaoDTO;
 import locadora.backend.dto.UsuarioDTO;
 import locadora.backend.model.Endereco;
+import locadora.backend.model.StatusLocacao;
 import locadora.backend.model.Usuario;
 import locadora.backend.repository.UsuarioRepository;
 import locadora.backend.service.LocacaoService;
@@ -13,11 +18,13 @@ import locadora.backend.service.UsuarioService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/usuarios")
@@ -36,10 +43,8 @@ public class UsuarioController {
      * Obter perfil do usuário autenticado
      */
     @GetMapping("/perfil")
-    public ResponseEntity<Usuario> getPerfil() {
-        String email = getEmailUsuarioAutenticado();
-        
-        Usuario usuario = usuarioRepository.findByEmail(email)
+    public ResponseEntity<Usuario> getPerfil(@AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Usuario usuario = usuarioRepository.findById(autenticado.id())
             .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
         // Remover senha da resposta
@@ -53,10 +58,9 @@ public class UsuarioController {
      * Atualizar dados básicos do perfil do usuário autenticado
      */
     @PutMapping("/perfil")
-    public ResponseEntity<Usuario> atualizarPerfil(@Valid @RequestBody Usuario usuarioAtualizado) {
-        String email = getEmailUsuarioAutenticado();
-        
-        Usuario usuario = usuarioRepository.findByEmail(email)
+    public ResponseEntity<Usuario> atualizarPerfil(@Valid @RequestBody Usuario usuarioAtualizado,
+                                                   @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Usuario usuario = usuarioRepository.findById(autenticado.id())
             .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
         // Atualizar apenas campos permitidos
@@ -81,10 +85,9 @@ public class UsuarioController {
      * Atualizar endereço do usuário autenticado
      */
     @PutMapping("/endereco")
-    public ResponseEntity<Usuario> atualizarEndereco(@Valid @RequestBody EnderecoDTO enderecoDTO) {
-        String email = getEmailUsuarioAutenticado();
-        
-        Usuario usuario = usuarioRepository.findByEmail(email)
+    public ResponseEntity<Usuario> atualizarEndereco(@Valid @RequestBody EnderecoDTO enderecoDTO,
+                                                     @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Usuario usuario = usuarioRepository.findById(autenticado.id())
             .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
         if (usuario.getEndereco() == null) {
@@ -111,10 +114,8 @@ public class UsuarioController {
      * Remover endereço do usuário autenticado
      */
     @DeleteMapping("/endereco")
-    public ResponseEntity<Void> removerEndereco() {
-        String email = getEmailUsuarioAutenticado();
-        
-        Usuario usuario = usuarioRepository.findByEmail(email)
+    public ResponseEntity<Void> removerEndereco(@AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Usuario usuario = usuarioRepository.findById(autenticado.id())
             .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
         usuario.setEndereco(null);
@@ -128,36 +129,22 @@ public class UsuarioController {
      * Obter histórico de locações do usuário autenticado
      */
     @GetMapping("/locacoes")
-    public ResponseEntity<List<LocacaoDTO>> getMinhasLocacoes() {
-        String email = getEmailUsuarioAutenticado();
-        
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        List<LocacaoDTO> locacoes = locacaoService.listarPorUsuario(usuario.getId());
+    public ResponseEntity<List<LocacaoDTO>> getMinhasLocacoes(@AuthenticationPrincipal UsuarioAutenticado usuario) {
+        List<LocacaoDTO> locacoes = locacaoService.listarPorUsuario(usuario.id());
         
         return ResponseEntity.ok(locacoes);
     }
 
     /**
      * GET /api/usuarios/locacoes/ativas
-     * Obter locações ativas do usuário autenticado
+     * Obter locações ativas do usuário autenticado, paginadas por cursor
+     * Filtros: retiradaDe, retiradaAte (datas ISO); paginação: cursor, tamanho
      */
     @GetMapping("/locacoes/ativas")
-    public ResponseEntity<List<LocacaoDTO>> getLocacoesAtivas() {
-        String email = getEmailUsuarioAutenticado();
-        
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        List<LocacaoDTO> locacoes = locacaoService.listarPorUsuario(usuario.getId());
-        
-        // Filtrar apenas ativas
-        List<LocacaoDTO> locacoesAtivas = locacoes.stream()
-            .filter(l -> l.getStatus().name().equals("ATIVA"))
-            .toList();
-        
-        return ResponseEntity.ok(locacoesAtivas);
+    public ResponseEntity<PaginaDTO<LocacaoDTO>> getLocacoesAtivas(
+            @AuthenticationPrincipal UsuarioAutenticado usuario, LocacaoFiltroDTO filtro) {
+        filtro.setStatus(StatusLocacao.ATIVA);
+        return ResponseEntity.ok(locacaoService.listarPaginaPorUsuario(usuario.id(), filtro));
     }
 
     /**
@@ -165,35 +152,23 @@ public class UsuarioController {
      * Obter estatísticas do usuário autenticado
      */
     @GetMapping("/estatisticas")
-    public ResponseEntity<EstatisticasUsuario> getEstatisticas() {
-        String email = getEmailUsuarioAutenticado();
-        
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+    public ResponseEntity<EstatisticasUsuario> getEstatisticas(@AuthenticationPrincipal UsuarioAutenticado usuario) {
+        // Contadores por status mantidos a cada criação/encerramento de locação
+        Map<StatusLocacao, TotaisLocacaoDTO> totais =
+            locacaoService.totalizarPorStatus(usuario.id(), null, null, null);
         
-        List<LocacaoDTO> locacoes = locacaoService.listarPorUsuario(usuario.getId());
+        long totalLocacoes = totais.values().stream().mapToLong(TotaisLocacaoDTO::getQuantidade).sum();
         
-        long totalLocacoes = locacoes.size();
-        
-        long locacoesAtivas = locacoes.stream()
-            .filter(l -> "ATIVA".equals(l.getStatus().name()))
-            .count();
-        
-        long locacoesFinalizadas = locacoes.stream()
-            .filter(l -> "FINALIZADA".equals(l.getStatus().name()))
-            .count();
-        
-        double valorTotalGasto = locacoes.stream()
-            .filter(l -> !"CANCELADA".equals(l.getStatus().name()))
-            .filter(l -> l.getValorTotal() != null)
-            .mapToDouble(l -> l.getValorTotal().doubleValue())
-            .sum();
+        // Gasto considera locações ativas e finalizadas (canceladas não são cobradas)
+        BigDecimal valorTotalGasto = totais.get(StatusLocacao.ATIVA).getValorTotal()
+            .add(totais.get(StatusLocacao.FINALIZADA).getValorTotal());
         
         EstatisticasUsuario stats = new EstatisticasUsuario(
             totalLocacoes,
-            locacoesAtivas,
-            locacoesFinalizadas,
-            valorTotalGasto
+            totais.get(StatusLocacao.ATIVA).getQuantidade(),
+            totais.get(StatusLocacao.FINALIZADA).getQuantidade(),
+            valorTotalGasto,
+            locacaoService.obterUltimaLocacao(usuario.id())
         );
         
         return ResponseEntity.ok(stats);
@@ -204,24 +179,14 @@ public class UsuarioController {
      * Desativar conta do usuário autenticado
      */
     @PatchMapping("/desativar")
-    public ResponseEntity<Void> desativarConta() {
-        String email = getEmailUsuarioAutenticado();
-        
-        Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
+    public ResponseEntity<Void> desativarConta(@AuthenticationPrincipal UsuarioAutenticado autenticado) {
         // Verificar se possui locações ativas
-        List<LocacaoDTO> locacoesAtivas = locacaoService.listarPorUsuario(usuario.getId())
-            .stream()
-            .filter(l -> l.getStatus().name().equals("ATIVA"))
-            .toList();
-        
-        if (!locacoesAtivas.isEmpty()) {
+        if (locacaoService.possuiLocacoesAtivas(autenticado.id())) {
             throw new RuntimeException("Não é possível desativar conta com locações ativas");
         }
         
-        usuario.setAtivo(false);
-        usuarioRepository.save(usuario);
+        // Desativa e encerra as sessões (tokens revogados)
+        usuarioService.desativar(autenticado.id());
         
         return ResponseEntity.noContent().build();
     }
@@ -352,19 +317,6 @@ public class UsuarioController {
         return ResponseEntity.noContent().build();
     }
 
-    // ========== MÉTODO AUXILIAR ==========
-
-    /**
-     * Método auxiliar para obter email do usuário autenticado
-     */
-    private String getEmailUsuarioAutenticado() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new RuntimeException("Usuário não autenticado");
-        }
-        return authentication.getName();
-    }
-
     // ========== CLASSE INTERNA PARA ESTATÍSTICAS ==========
 
     /**
@@ -374,14 +326,17 @@ public class UsuarioController {
         public long totalLocacoes;
         public long locacoesAtivas;
         public long locacoesFinalizadas;
-        public double valorTotalGasto;
+        public BigDecimal valorTotalGasto;
+        public LocalDate ultimaLocacao;
 
         public EstatisticasUsuario(long totalLocacoes, long locacoesAtivas, 
-                                  long locacoesFinalizadas, double valorTotalGasto) {
+                                  long locacoesFinalizadas, BigDecimal valorTotalGasto,
+                                  LocalDate ultimaLocacao) {
             this.totalLocacoes = totalLocacoes;
             this.locacoesAtivas = locacoesAtivas;
             this.locacoesFinalizadas = locacoesFinalizadas;
             this.valorTotalGasto = valorTotalGasto;
+            this.ultimaLocacao = ultimaLocacao;
         }
     }
 }
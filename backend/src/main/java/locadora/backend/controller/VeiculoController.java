@@ -1,8 +1,16 @@
 package locadora.backend.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -13,14 +21,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
+import locadora.backend.dto.FacetasVeiculoDTO;
+import locadora.backend.dto.ImportacaoResultadoDTO;
+import locadora.backend.dto.PaginaDTO;
 import locadora.backend.dto.VeiculoCreateDTO;
 import locadora.backend.dto.VeiculoDTO;
+import locadora.backend.dto.VeiculoFiltroDTO;
+import locadora.backend.dto.VeiculoLoteDisponibilidadeDTO;
+import locadora.backend.dto.VeiculoLotePrecoDTO;
+import locadora.backend.service.CatalogoDisponiveisSerializado;
+import locadora.backend.service.ImportacaoVeiculosService;
 import locadora.backend.service.VeiculoService;
+import locadora.backend.service.VersaoCatalogo;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -30,14 +49,17 @@ import lombok.RequiredArgsConstructor;
 public class VeiculoController {
 
     private final VeiculoService veiculoService;
+    private final VersaoCatalogo versaoCatalogo;
+    private final ImportacaoVeiculosService importacaoService;
+    private final CatalogoDisponiveisSerializado catalogoDisponiveis;
 
     /**
      * GET /api/veiculos
      * Listar todos os veículos (público)
      */
     @GetMapping
-    public ResponseEntity<List<VeiculoDTO>> listarTodos() {
-        return ResponseEntity.ok(veiculoService.listarTodos());
+    public ResponseEntity<List<VeiculoDTO>> listarTodos(WebRequest request) {
+        return respostaCondicional(request, veiculoService::listarTodos);
     }
 
     /**
@@ -45,8 +67,85 @@ public class VeiculoController {
      * Listar apenas veículos disponíveis (público)
      */
     @GetMapping("/disponiveis")
-    public ResponseEntity<List<VeiculoDTO>> listarDisponiveis() {
-        return ResponseEntity.ok(veiculoService.listarDisponiveis());
+    public ResponseEntity<byte[]> listarDisponiveis(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        // Corpo já serializado e comprimido: nenhuma consulta, mapeamento ou compressão por requisição
+        CatalogoDisponiveisSerializado.Conteudo conteudo = catalogoDisponiveis.obter();
+        boolean gzip = aceitaGzip(acceptEncoding);
+        String etag = gzip ? conteudo.etagGzip() : conteudo.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return resposta.body(gzip ? conteudo.gzip() : conteudo.json());
+    }
+
+    /**
+     * GET /api/veiculos/pagina
+     * Catálogo paginado por cursor com filtros (público)
+     * Filtros: categoria, marca, precoMin, precoMax, anoMin, anoMax, disponivel
+     * Paginação: ordenarPor (id, preco, ano), cursor, tamanho
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaDTO<VeiculoDTO>> listarPagina(VeiculoFiltroDTO filtro, WebRequest request) {
+        return respostaCondicional(request, () -> veiculoService.listarPagina(filtro));
+    }
+
+    /**
+     * GET /api/veiculos/livres
+     * Veículos livres em todo o período (datas ISO: inicio, fim) com os filtros do catálogo (público)
+     * Filtros: categoria, marca, precoMin, precoMax, anoMin, anoMax; paginação por cursor e tamanho
+     */
+    @GetMapping("/livres")
+    public ResponseEntity<PaginaDTO<VeiculoDTO>> listarLivres(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            VeiculoFiltroDTO filtro) {
+        return ResponseEntity.ok(veiculoService.listarLivresNoPeriodo(inicio, fim, filtro));
+    }
+
+    /**
+     * GET /api/veiculos/pesquisa
+     * Pesquisa textual por marca, modelo, categoria e descrição (público)
+     * Aceita termos sem acento, prefixos e pequenos erros de digitação
+     * Paginada: repasse o proximoCursor da resposta para buscar os resultados seguintes
+     */
+    @GetMapping("/pesquisa")
+    public ResponseEntity<PaginaDTO<VeiculoDTO>> pesquisar(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(defaultValue = "true") boolean apenasDisponiveis,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite,
+            WebRequest request) {
+        return respostaCondicional(request,
+                () -> veiculoService.pesquisar(q, categoria, apenasDisponiveis, cursor, limite));
+    }
+
+    /**
+     * GET /api/veiculos/facetas
+     * Contagem de veículos por categoria, marca, faixa de ano e faixa de preço (público)
+     * Filtros: categoria, marca, faixaAno (ex.: 2020-2024), faixaPreco (ex.: 100-199), disponivel
+     */
+    @GetMapping("/facetas")
+    public ResponseEntity<FacetasVeiculoDTO> facetas(
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) String marca,
+            @RequestParam(required = false) String faixaAno,
+            @RequestParam(required = false) String faixaPreco,
+            @RequestParam(required = false) Boolean disponivel,
+            WebRequest request) {
+        return respostaCondicional(request,
+                () -> veiculoService.calcularFacetas(categoria, marca, faixaAno, faixaPreco, disponivel));
     }
 
     /**
@@ -54,8 +153,8 @@ public class VeiculoController {
      * Buscar veículo por ID (público)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<VeiculoDTO> buscarPorId(@PathVariable Long id) {
-        return ResponseEntity.ok(veiculoService.buscarPorId(id));
+    public ResponseEntity<VeiculoDTO> buscarPorId(@PathVariable Long id, WebRequest request) {
+        return respostaCondicional(request, () -> veiculoService.buscarPorId(id));
     }
 
     /**
@@ -63,8 +162,8 @@ public class VeiculoController {
      * Buscar veículos por categoria (público)
      */
     @GetMapping("/categoria/{categoria}")
-    public ResponseEntity<List<VeiculoDTO>> buscarPorCategoria(@PathVariable String categoria) {
-        return ResponseEntity.ok(veiculoService.buscarPorCategoria(categoria));
+    public ResponseEntity<List<VeiculoDTO>> buscarPorCategoria(@PathVariable String categoria, WebRequest request) {
+        return respostaCondicional(request, () -> veiculoService.buscarPorCategoria(categoria));
     }
 
     /**
@@ -77,6 +176,23 @@ public class VeiculoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(veiculoService.criar(dto));
     }
 
+    /**
+     * POST /api/veiculos/importacao
+     * Importação em lote via CSV (com cabeçalho) ou NDJSON (apenas funcionários)
+     * O corpo é lido em streaming; a resposta traz os erros por linha
+     */
+    @PostMapping(value = "/importacao", consumes = "text/csv")
+    @PreAuthorize("hasRole('FUNCIONARIO')")
+    public ResponseEntity<ImportacaoResultadoDTO> importarCsv(InputStream corpo) throws IOException {
+        return ResponseEntity.ok(importacaoService.importarCsv(corpo));
+    }
+
+    @PostMapping(value = "/importacao", consumes = "application/x-ndjson")
+    @PreAuthorize("hasRole('FUNCIONARIO')")
+    public ResponseEntity<ImportacaoResultadoDTO> importarNdjson(InputStream corpo) throws IOException {
+        return ResponseEntity.ok(importacaoService.importarNdjson(corpo));
+    }
+
     /**
      * PUT /api/veiculos/{id}
      * Atualizar veículo (apenas funcionários)
@@ -108,4 +224,78 @@ public class VeiculoController {
         veiculoService.alterarDisponibilidade(id, disponivel);
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * PATCH /api/veiculos/lote/disponibilidade
+     * Alterar disponibilidade por lista de ids ou por categoria (apenas funcionários)
+     */
+    @PatchMapping("/lote/disponibilidade")
+    @PreAuthorize("hasRole('FUNCIONARIO')")
+    public ResponseEntity<ResultadoLote> alterarDisponibilidadeEmLote(
+            @Valid @RequestBody VeiculoLoteDisponibilidadeDTO dto) {
+        return ResponseEntity.ok(new ResultadoLote(veiculoService.alterarDisponibilidadeEmLote(dto)));
+    }
+
+    /**
+     * PATCH /api/veiculos/lote/valor-diaria
+     * Definir ou reajustar (percentual) o valor diário por ids ou por categoria (apenas funcionários)
+     */
+    @PatchMapping("/lote/valor-diaria")
+    @PreAuthorize("hasRole('FUNCIONARIO')")
+    public ResponseEntity<ResultadoLote> ajustarValorDiariaEmLote(@Valid @RequestBody VeiculoLotePrecoDTO dto) {
+        return ResponseEntity.ok(new ResultadoLote(veiculoService.ajustarValorDiariaEmLote(dto)));
+    }
+
+    // ========== MÉTODOS AUXILIARES ==========
+
+    /**
+     * Responde 304 Not Modified quando o If-None-Match do cliente corresponde à
+     * versão atual do catálogo, sem consultar o banco nem serializar o corpo.
+     * A ETag é lida antes de carregar os dados, então nunca fica mais nova que o corpo.
+     */
+    private <T> ResponseEntity<T> respostaCondicional(WebRequest request, Supplier<T> corpo) {
+        String etag = versaoCatalogo.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(corpo.get());
+    }
+
+    /**
+     * Verifica se o cliente aceita gzip (ignora a codificação quando vem com q=0)
+     */
+    private boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacao : acceptEncoding.split(",")) {
+            String[] partes = codificacao.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < partes.length; i++) {
+                    String parametro = partes[i].trim().replace(" ", "");
+                    if (parametro.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ========== CLASSES INTERNAS ==========
+
+    /**
+     * Classe interna para resultado das operações em lote
+     */
+    public static class ResultadoLote {
+        public int atualizados;
+
+        public ResultadoLote(int atualizados) {
+            this.atualizados = atualizados;
+        }
+    }
 }
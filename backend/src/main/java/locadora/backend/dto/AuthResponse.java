@@ -7,6 +7,7 @@ import lombok.Data;
 @AllArgsConstructor
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String tipo = "Bearer";
     private Long id;
     private String nome;
@@ -14,9 +15,10 @@ public class AuthResponse {
     private Boolean isFuncionario;
     private Long expiresIn;
 
-    public AuthResponse(String token, Long id, String nome, String email, 
+    public AuthResponse(String token, String refreshToken, Long id, String nome, String email,
                        Boolean isFuncionario, Long expiresIn) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.id = id;
         this.nome = nome;
         this.email = email;
@@ -0,0 +1,23 @@
+package locadora.backend.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contagem de veículos por faceta para o conjunto de filtros informado.
+ * Cada faceta ignora o próprio filtro, para que a interface mostre as
+ * outras opções disponíveis daquela dimensão.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetasVeiculoDTO {
+    private long total;
+    private Map<String, Long> categorias;
+    private Map<String, Long> marcas;
+    private Map<String, Long> faixasAno;
+    private Map<String, Long> faixasPreco;
+}
@@ -0,0 +1,31 @@
+package locadora.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado da importação em lote de veículos, com os erros por linha.
+ * A lista de erros é limitada; errosOmitidos indica quantos ficaram de fora.
+ */
+@Data
+@NoArgsConstructor
+public class ImportacaoResultadoDTO {
+    private long totalLinhas;
+    private long importados;
+    private long rejeitados;
+    private long errosOmitidos;
+    private List<ErroLinha> erros = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErroLinha {
+        private long linha;
+        private String placa;
+        private String mensagem;
+    }
+}
@@ -23,6 +23,11 @@ public class LocacaoDTO {
     private UsuarioSimplificadoDTO usuario;
 
     public LocacaoDTO(Locacao locacao) {
+        this(locacao, new UsuarioSimplificadoDTO(locacao.getUsuario()));
+    }
+
+    // Usuário já conhecido (sem inicializar a associação da locação)
+    public LocacaoDTO(Locacao locacao, UsuarioSimplificadoDTO usuario) {
         this.id = locacao.getId();
         this.dataRetirada = locacao.getDataRetirada();
         this.dataDevolucao = locacao.getDataDevolucao();
@@ -30,6 +35,22 @@ public class LocacaoDTO {
         this.valorTotal = locacao.getValorTotal();
         this.status = locacao.getStatus();
         this.veiculo = new VeiculoDTO(locacao.getVeiculo());
-        this.usuario = new UsuarioSimplificadoDTO(locacao.getUsuario());
+        this.usuario = usuario;
+    }
+
+    // Construtor usado pelas projeções JPQL (sem carregar as entidades Locacao, Veiculo e Usuario)
+    public LocacaoDTO(Long id, LocalDate dataRetirada, LocalDate dataDevolucao, String observacoes,
+                      BigDecimal valorTotal, StatusLocacao status,
+                      Long veiculoId, String modelo, String marca, String placa, Integer ano,
+                      String categoria, BigDecimal valorDiaria, Boolean disponivel, String descricao,
+                      Long usuarioId, String nome, String email, String cpf) {
+        this.id = id;
+        this.dataRetirada = dataRetirada;
+        this.dataDevolucao = dataDevolucao;
+        this.observacoes = observacoes;
+        this.valorTotal = valorTotal;
+        this.status = status;
+        this.veiculo = new VeiculoDTO(veiculoId, modelo, marca, placa, ano, categoria, valorDiaria, disponivel, descricao);
+        this.usuario = new UsuarioSimplificadoDTO(usuarioId, nome, email, cpf);
     }
 }
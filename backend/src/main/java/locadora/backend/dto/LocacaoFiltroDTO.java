@@ -0,0 +1,27 @@
+package locadora.backend.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import locadora.backend.model.StatusLocacao;
+import lombok.Data;
+
+/**
+ * Filtros e parâmetros de paginação do histórico de locações
+ * (preenchido a partir dos parâmetros da query string).
+ */
+@Data
+public class LocacaoFiltroDTO {
+    private StatusLocacao status;
+
+    // Intervalo inclusivo da data de retirada (datas ISO)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate retiradaDe;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate retiradaAte;
+
+    // Ordenação fixa: data de retirada decrescente, desempatada pelo id
+    private String cursor;
+    private Integer tamanho = 20;
+}
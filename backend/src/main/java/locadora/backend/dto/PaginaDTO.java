@@ -0,0 +1,20 @@
+package locadora.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de resultados paginada por cursor (keyset).
+ * O cliente repassa o proximoCursor para buscar a página seguinte.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    private List<T> itens;
+    private String proximoCursor;
+    private boolean temMais;
+}
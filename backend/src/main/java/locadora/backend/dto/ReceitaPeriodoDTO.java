@@ -0,0 +1,42 @@
+package locadora.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import locadora.backend.model.StatusLocacao;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Receita das locações retiradas em [inicio, fim], por período (dia, semana ou mês).
+ * Cada série é um array paralelo a periodos, por status e, se pedido, por categoria.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReceitaPeriodoDTO {
+    private LocalDate inicio;
+    private LocalDate fim;
+    private String granularidade;
+    private List<LocalDate> periodos;
+    private List<Serie> series;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Serie {
+        // Null quando as categorias são somadas
+        private String categoria;
+        private StatusLocacao status;
+        private long[] quantidade;
+        private BigDecimal[] valorTotal;
+        private long totalQuantidade;
+        private BigDecimal totalValor;
+    }
+}
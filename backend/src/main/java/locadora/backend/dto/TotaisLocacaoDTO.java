@@ -0,0 +1,30 @@
+package locadora.backend.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import locadora.backend.model.StatusLocacao;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Quantidade e soma exata de valorTotal das locações de um status
+ * (e de uma categoria de veículo, quando agrupado por categoria).
+ * Preenchido direto pelas consultas de agregação do LocacaoRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TotaisLocacaoDTO {
+    private String categoria;
+    private StatusLocacao status;
+    private long quantidade;
+    private BigDecimal valorTotal;
+
+    public TotaisLocacaoDTO(StatusLocacao status, long quantidade, BigDecimal valorTotal) {
+        this(null, status, quantidade, valorTotal);
+    }
+}
@@ -37,4 +37,26 @@ public class UsuarioDTO {
             this.endereco = new EnderecoDTO(usuario.getEndereco());
         }
     }
+
+    // Construtor usado pelas projeções JPQL (sem carregar a entidade Usuario)
+    public UsuarioDTO(Long id, String nome, String cpf, String email, String telefone,
+                      LocalDateTime dataNascimento, Boolean ativo, Boolean isFuncionario,
+                      LocalDateTime criadoEm, LocalDateTime atualizadoEm,
+                      Long enderecoId, String cep, String logradouro, String numero, String complemento,
+                      String bairro, String cidade, String estado) {
+        this.id = id;
+        this.nome = nome;
+        this.cpf = cpf;
+        this.email = email;
+        this.telefone = telefone;
+        this.dataNascimento = dataNascimento;
+        this.ativo = ativo;
+        this.isFuncionario = isFuncionario;
+        this.criadoEm = criadoEm;
+        this.atualizadoEm = atualizadoEm;
+
+        if (enderecoId != null) {
+            this.endereco = new EnderecoDTO(enderecoId, cep, logradouro, numero, complemento, bairro, cidade, estado);
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package locadora.backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ocupação da frota em [inicio, fim], por período (dia, semana ou mês).
+ * As séries são arrays paralelos a periodos: o índice i de cada série
+ * se refere ao período que começa em periodos[i] e tem diasPorPeriodo[i] dias.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UtilizacaoFrotaDTO {
+    private LocalDate inicio;
+    private LocalDate fim;
+    private String granularidade;
+    private int totalVeiculos;
+    private List<LocalDate> periodos;
+    private int[] diasPorPeriodo;
+    private Serie frota;
+    private Map<String, Serie> porCategoria;
+    // Só quando solicitado (incluirVeiculos=true)
+    private List<UtilizacaoVeiculo> veiculos;
+
+    /**
+     * Veículo-dias ocupados e ociosos por período e a taxa de ocupação (0 a 1)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Serie {
+        private int veiculos;
+        private long[] diasOcupados;
+        private long[] diasOciosos;
+        private double[] taxaOcupacao;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UtilizacaoVeiculo {
+        private Long veiculoId;
+        private String categoria;
+        private int diasOcupados;
+        private int diasOciosos;
+        private double taxaOcupacao;
+        // Maior sequência de dias seguidos sem locação no intervalo
+        private int maiorPeriodoOcioso;
+        private int[] diasOcupadosPorPeriodo;
+    }
+}
@@ -1,32 +1,40 @@
 package locadora.backend.dto;
 
 import java.math.BigDecimal;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
 public class VeiculoCreateDTO {
     
     @NotBlank(message = "Modelo é obrigatório")
+    @Size(max = 100, message = "Modelo deve ter no máximo 100 caracteres")
     private String modelo;
     
     @NotBlank(message = "Marca é obrigatória")
+    @Size(max = 100, message = "Marca deve ter no máximo 100 caracteres")
     private String marca;
     
     @NotBlank(message = "Placa é obrigatória")
+    @Size(max = 10, message = "Placa deve ter no máximo 10 caracteres")
     private String placa;
     
     @NotNull(message = "Ano é obrigatório")
     private Integer ano;
     
     @NotBlank(message = "Categoria é obrigatória")
+    @Size(max = 50, message = "Categoria deve ter no máximo 50 caracteres")
     private String categoria;
     
     @NotNull(message = "Valor diário é obrigatório")
     @Positive(message = "Valor diário deve ser positivo")
+    @Digits(integer = 8, fraction = 2, message = "Valor diário deve ter até 8 dígitos inteiros e 2 decimais")
     private BigDecimal valorDiaria;
     
+    @Size(max = 500, message = "Descrição deve ter no máximo 500 caracteres")
     private String descricao;
 }
@@ -0,0 +1,25 @@
+package locadora.backend.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+
+/**
+ * Filtros e parâmetros de paginação do catálogo de veículos
+ * (preenchido a partir dos parâmetros da query string).
+ */
+@Data
+public class VeiculoFiltroDTO {
+    private String categoria;
+    private String marca;
+    private BigDecimal precoMin;
+    private BigDecimal precoMax;
+    private Integer anoMin;
+    private Integer anoMax;
+    private Boolean disponivel;
+
+    // Ordenação estável: id, preco ou ano (sempre desempatada pelo id)
+    private String ordenarPor = "id";
+    private String cursor;
+    private Integer tamanho = 20;
+}
@@ -0,0 +1,20 @@
+package locadora.backend.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Alteração de disponibilidade em lote: informar a lista de ids OU a categoria.
+ */
+@Data
+public class VeiculoLoteDisponibilidadeDTO {
+
+    private List<Long> ids;
+
+    private String categoria;
+
+    @NotNull(message = "Disponibilidade é obrigatória")
+    private Boolean disponivel;
+}
@@ -0,0 +1,26 @@
+package locadora.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * Ajuste de valor diário em lote: informar a lista de ids OU a categoria,
+ * e o novo valor absoluto OU o percentual de reajuste (ex.: 10 = +10%, -5 = -5%).
+ */
+@Data
+public class VeiculoLotePrecoDTO {
+
+    private List<Long> ids;
+
+    private String categoria;
+
+    @Positive(message = "Valor diário deve ser positivo")
+    private BigDecimal valor;
+
+    @DecimalMin(value = "-99.99", message = "Percentual deve ser maior que -100")
+    private BigDecimal percentual;
+}
@@ -0,0 +1,9 @@
+package locadora.backend.event;
+
+/**
+ * Evento publicado após operações em lote sobre veículos (importação,
+ * atualizações por filtro), em que vários registros mudam de uma vez.
+ * Os índices e caches do catálogo devem ser reconstruídos por completo.
+ */
+public record CatalogoAlteradoEvent(String motivo) {
+}
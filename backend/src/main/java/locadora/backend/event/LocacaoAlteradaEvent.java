@@ -0,0 +1,13 @@
+package locadora.backend.event;
+
+import java.time.LocalDate;
+
+import locadora.backend.model.StatusLocacao;
+
+/**
+ * Evento publicado quando uma locação é criada (status ATIVA) ou encerrada
+ * (FINALIZADA ou CANCELADA), com o período ocupado pelo veículo.
+ */
+public record LocacaoAlteradaEvent(Long locacaoId, Long veiculoId, LocalDate dataRetirada,
+                                   LocalDate dataDevolucao, StatusLocacao status) {
+}
@@ -0,0 +1,12 @@
+package locadora.backend.event;
+
+import locadora.backend.dto.VeiculoDTO;
+
+/**
+ * Evento publicado sempre que um veículo é criado, alterado, removido
+ * ou muda de disponibilidade.
+ * - anterior: estado antes da alteração (null na criação)
+ * - atual: estado depois da alteração (null na remoção)
+ */
+public record VeiculoAlteradoEvent(Long veiculoId, VeiculoDTO anterior, VeiculoDTO atual) {
+}
@@ -0,0 +1,11 @@
+package locadora.backend.exception;
+
+/**
+ * Operação recusada por conflito com o estado atual do recurso (respondida com 409)
+ */
+public class ConflitoException extends RuntimeException {
+
+    public ConflitoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package locadora.backend.exception;
+
+/**
+ * Requisição recusada porque o recurso está saturado (respondida com 429 e Retry-After)
+ */
+public class SobrecargaException extends RuntimeException {
+
+    private final long segundosParaNovaTentativa;
+
+    public SobrecargaException(String message, long segundosParaNovaTentativa) {
+        super(message);
+        this.segundosParaNovaTentativa = segundosParaNovaTentativa;
+    }
+
+    public long getSegundosParaNovaTentativa() {
+        return segundosParaNovaTentativa;
+    }
+}
@@ -0,0 +1,58 @@
+package locadora.backend.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contadores de locações por usuário, mantidos a cada criação/encerramento de
+ * locação (na mesma transação) e recalculados periodicamente a partir de locacoes.
+ * As escritas são feitas por comandos nativos do EstatisticasLocacaoUsuarioRepository.
+ */
+@Entity
+@Table(name = "estatisticas_locacao_usuario")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticasLocacaoUsuario {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "total_locacoes", nullable = false)
+    private long totalLocacoes;
+
+    @Column(name = "locacoes_ativas", nullable = false)
+    private long locacoesAtivas;
+
+    @Column(name = "locacoes_finalizadas", nullable = false)
+    private long locacoesFinalizadas;
+
+    @Column(name = "locacoes_canceladas", nullable = false)
+    private long locacoesCanceladas;
+
+    @Column(name = "valor_ativas", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorAtivas;
+
+    @Column(name = "valor_finalizadas", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorFinalizadas;
+
+    @Column(name = "valor_canceladas", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorCanceladas;
+
+    // Data de retirada mais recente entre as locações do usuário
+    @Column(name = "ultima_locacao")
+    private LocalDate ultimaLocacao;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+}
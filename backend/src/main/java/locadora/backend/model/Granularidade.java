@@ -0,0 +1,30 @@
+package locadora.backend.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Agrupamento das séries dos relatórios (semanas ISO, começando na segunda-feira)
+ */
+public enum Granularidade {
+    DIA,
+    SEMANA,
+    MES;
+
+    public LocalDate inicioDoPeriodo(LocalDate dia) {
+        return switch (this) {
+            case DIA -> dia;
+            case SEMANA -> dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MES -> dia.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate proximoPeriodo(LocalDate inicioPeriodo) {
+        return switch (this) {
+            case DIA -> inicioPeriodo.plusDays(1);
+            case SEMANA -> inicioPeriodo.plusWeeks(1);
+            case MES -> inicioPeriodo.plusMonths(1);
+        };
+    }
+}
@@ -11,6 +11,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -19,7 +20,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "locacoes")
+@Table(name = "locacoes", indexes = {
+    // Verificação de sobreposição de períodos ao criar locações
+    @Index(name = "idx_locacoes_veiculo_status_retirada", columnList = "veiculo_id, status, data_retirada"),
+    // Histórico do usuário filtrado por status e ordenado pela retirada
+    @Index(name = "idx_locacoes_usuario_status_retirada", columnList = "usuario_id, status, data_retirada")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,6 +49,10 @@ public class Locacao {
     @JoinColumn(name = "veiculo_id", nullable = false)
     private Veiculo veiculo;
 
+    // Categoria do veículo na criação; os baldes de receita não mudam se o veículo for recategorizado
+    @Column(length = 50)
+    private String categoria;
+
     @Column(length = 500)
     private String observacoes;
 
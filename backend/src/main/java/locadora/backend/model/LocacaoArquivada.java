@@ -0,0 +1,64 @@
+package locadora.backend.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Locação encerrada (FINALIZADA ou CANCELADA) movida de locacoes pelo
+ * ArquivamentoLocacoes. Mantém o id original e só os índices usados pelas
+ * consultas de histórico; o status é gravado como número (ordem de StatusLocacao).
+ */
+@Entity
+@Table(name = "locacoes_arquivo", indexes = {
+    @Index(name = "idx_locacoes_arquivo_usuario_retirada", columnList = "usuario_id, data_retirada"),
+    @Index(name = "idx_locacoes_arquivo_retirada", columnList = "data_retirada")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocacaoArquivada {
+
+    @Id
+    private Long id;
+
+    @Column(name = "data_retirada", nullable = false)
+    private LocalDate dataRetirada;
+
+    @Column(name = "data_devolucao")
+    private LocalDate dataDevolucao;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "veiculo_id", nullable = false)
+    private Veiculo veiculo;
+
+    @Column(length = 50)
+    private String categoria;
+
+    @Column(length = 500)
+    private String observacoes;
+
+    @Column(name = "valor_total", nullable = false, precision = 10, scale = 2)
+    private BigDecimal valorTotal;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false)
+    private StatusLocacao status;
+}
@@ -0,0 +1,60 @@
+package locadora.backend.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Receita pré-agregada por dia de retirada, categoria do veículo e status da locação.
+ * Mantida a cada criação/encerramento de locação (na mesma transação) e reconstruída
+ * periodicamente a partir de locacoes e locacoes_arquivo. As escritas são feitas por
+ * comandos nativos do ReceitaDiariaRepository.
+ */
+@Entity
+@Table(name = "receita_diaria")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceitaDiaria {
+
+    @EmbeddedId
+    private Chave chave;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    @Column(name = "valor_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorTotal;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+
+        @Column(nullable = false)
+        private LocalDate dia;
+
+        @Column(nullable = false, length = 50)
+        private String categoria;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 20)
+        private StatusLocacao status;
+    }
+}
@@ -0,0 +1,37 @@
+package locadora.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tokens de acesso do usuário emitidos antes de revogado_em deixam de valer
+ * (gravado já arredondado para o segundo seguinte, pois o iat do JWT é em segundos).
+ * Só interessam enquanto algum desses tokens puder estar dentro da validade (jwt.expiration).
+ */
+@Entity
+@Table(name = "revogacoes_acesso", indexes = @Index(name = "idx_revogacoes_acesso_revogado_em", columnList = "revogado_em"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevogacaoAcesso {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "revogado_em", nullable = false)
+    private LocalDateTime revogadoEm;
+}
@@ -1,19 +1,31 @@
 package locadora.backend.model;
 
 import java.math.BigDecimal;
+
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "veiculos")
+@Table(name = "veiculos", indexes = {
+    // Índices das consultas paginadas do catálogo (filtro + chave de ordenação + id)
+    @Index(name = "idx_veiculos_categoria_valor", columnList = "categoria, valor_diaria, id"),
+    @Index(name = "idx_veiculos_disponivel_valor", columnList = "disponivel, valor_diaria, id"),
+    @Index(name = "idx_veiculos_marca", columnList = "marca, id"),
+    @Index(name = "idx_veiculos_valor", columnList = "valor_diaria, id"),
+    @Index(name = "idx_veiculos_ano", columnList = "ano, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -44,9 +56,16 @@ public class Veiculo {
     @Column(name = "valor_diaria", nullable = false, precision = 10, scale = 2)
     private BigDecimal valorDiaria;
 
+    // Em operação, definido só pela equipe; reservas por período ficam nas locações
     @Column(nullable = false)
     private Boolean disponivel = true;
 
     @Column(length = 500)
     private String descricao;
+
+    // Controle de concorrência otimista (incrementado também a cada nova locação do veículo)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long versao;
 }
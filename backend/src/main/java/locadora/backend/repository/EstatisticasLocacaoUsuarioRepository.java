@@ -0,0 +1,116 @@
+package locadora.backend.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import locadora.backend.model.EstatisticasLocacaoUsuario;
+
+/**
+ * Escritas com upsert nativo (INSERT ... ON DUPLICATE KEY UPDATE): o contador é
+ * incrementado no banco, sem ler a linha antes, então transações concorrentes do
+ * mesmo usuário só se serializam no lock da própria linha.
+ */
+@Repository
+public interface EstatisticasLocacaoUsuarioRepository extends JpaRepository<EstatisticasLocacaoUsuario, Long> {
+
+    // Nova locação (sempre ATIVA)
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO estatisticas_locacao_usuario
+                (usuario_id, total_locacoes, locacoes_ativas, locacoes_finalizadas, locacoes_canceladas,
+                 valor_ativas, valor_finalizadas, valor_canceladas, ultima_locacao, atualizado_em)
+            VALUES (:usuarioId, 1, 1, 0, 0, :valor, 0, 0, :retirada, CURRENT_TIMESTAMP)
+            ON DUPLICATE KEY UPDATE
+                total_locacoes = total_locacoes + 1,
+                locacoes_ativas = locacoes_ativas + 1,
+                valor_ativas = valor_ativas + VALUES(valor_ativas),
+                ultima_locacao = CASE WHEN ultima_locacao IS NULL OR ultima_locacao < VALUES(ultima_locacao)
+                                      THEN VALUES(ultima_locacao) ELSE ultima_locacao END,
+                atualizado_em = CURRENT_TIMESTAMP
+            """)
+    int registrarNovaLocacao(@Param("usuarioId") Long usuarioId,
+                             @Param("valor") BigDecimal valor,
+                             @Param("retirada") LocalDate retirada);
+
+    // Locação ativa passando para FINALIZADA ou CANCELADA; 0 linhas se o usuário ainda não tem contadores
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE estatisticas_locacao_usuario SET
+                locacoes_ativas = locacoes_ativas - 1,
+                locacoes_finalizadas = locacoes_finalizadas + CASE WHEN :status = 'FINALIZADA' THEN 1 ELSE 0 END,
+                locacoes_canceladas = locacoes_canceladas + CASE WHEN :status = 'CANCELADA' THEN 1 ELSE 0 END,
+                valor_ativas = valor_ativas - :valor,
+                valor_finalizadas = valor_finalizadas + CASE WHEN :status = 'FINALIZADA' THEN :valor ELSE 0 END,
+                valor_canceladas = valor_canceladas + CASE WHEN :status = 'CANCELADA' THEN :valor ELSE 0 END,
+                atualizado_em = CURRENT_TIMESTAMP
+            WHERE usuario_id = :usuarioId
+            """)
+    int registrarEncerramento(@Param("usuarioId") Long usuarioId,
+                              @Param("status") String status,
+                              @Param("valor") BigDecimal valor);
+
+    // Recalcula um usuário a partir de locacoes e locacoes_arquivo
+    default int recalcular(Long usuarioId) {
+        return recalcularFaixa(usuarioId, usuarioId);
+    }
+
+    // Recalcula os usuários com id em [primeiro, ultimo] que têm locações; a faixa limita as linhas
+    // lidas (e travadas) por transação, para a reconstrução completa não bloquear a tabela inteira
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO estatisticas_locacao_usuario
+                (usuario_id, total_locacoes, locacoes_ativas, locacoes_finalizadas, locacoes_canceladas,
+                 valor_ativas, valor_finalizadas, valor_canceladas, ultima_locacao, atualizado_em)
+            SELECT l.usuario_id,
+                   COUNT(*),
+                   SUM(CASE WHEN l.status = 'ATIVA' THEN 1 ELSE 0 END),
+                   SUM(CASE WHEN l.status = 'FINALIZADA' THEN 1 ELSE 0 END),
+                   SUM(CASE WHEN l.status = 'CANCELADA' THEN 1 ELSE 0 END),
+                   COALESCE(SUM(CASE WHEN l.status = 'ATIVA' THEN l.valor_total END), 0),
+                   COALESCE(SUM(CASE WHEN l.status = 'FINALIZADA' THEN l.valor_total END), 0),
+                   COALESCE(SUM(CASE WHEN l.status = 'CANCELADA' THEN l.valor_total END), 0),
+                   MAX(l.data_retirada),
+                   CURRENT_TIMESTAMP
+            FROM (SELECT usuario_id, status, valor_total, data_retirada FROM locacoes
+                  WHERE usuario_id BETWEEN :primeiro AND :ultimo
+                  UNION ALL
+                  SELECT usuario_id, CASE status WHEN 0 THEN 'ATIVA' WHEN 1 THEN 'FINALIZADA' ELSE 'CANCELADA' END,
+                         valor_total, data_retirada FROM locacoes_arquivo
+                  WHERE usuario_id BETWEEN :primeiro AND :ultimo) l
+            GROUP BY l.usuario_id
+            ON DUPLICATE KEY UPDATE
+                total_locacoes = VALUES(total_locacoes),
+                locacoes_ativas = VALUES(locacoes_ativas),
+                locacoes_finalizadas = VALUES(locacoes_finalizadas),
+                locacoes_canceladas = VALUES(locacoes_canceladas),
+                valor_ativas = VALUES(valor_ativas),
+                valor_finalizadas = VALUES(valor_finalizadas),
+                valor_canceladas = VALUES(valor_canceladas),
+                ultima_locacao = VALUES(ultima_locacao),
+                atualizado_em = VALUES(atualizado_em)
+            """)
+    int recalcularFaixa(@Param("primeiro") Long primeiro, @Param("ultimo") Long ultimo);
+
+    // Contadores de usuários da faixa que não têm mais nenhuma locação
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            DELETE FROM estatisticas_locacao_usuario
+            WHERE usuario_id BETWEEN :primeiro AND :ultimo
+              AND NOT EXISTS (SELECT 1 FROM locacoes l WHERE l.usuario_id = estatisticas_locacao_usuario.usuario_id)
+              AND NOT EXISTS (SELECT 1 FROM locacoes_arquivo a WHERE a.usuario_id = estatisticas_locacao_usuario.usuario_id)
+            """)
+    int removerSemLocacoes(@Param("primeiro") Long primeiro, @Param("ultimo") Long ultimo);
+
+    // Maior id que pode ter contadores (usuários atuais ou linhas já gravadas)
+    @Query(nativeQuery = true, value = """
+            SELECT GREATEST(COALESCE((SELECT MAX(id) FROM usuarios), 0),
+                            COALESCE((SELECT MAX(usuario_id) FROM estatisticas_locacao_usuario), 0))
+            """)
+    long maiorUsuarioId();
+}
@@ -0,0 +1,105 @@
+package locadora.backend.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import locadora.backend.dto.LocacaoDTO;
+import locadora.backend.dto.TotaisLocacaoDTO;
+import locadora.backend.model.LocacaoArquivada;
+import locadora.backend.model.StatusLocacao;
+
+/**
+ * Consultas do arquivo de locações encerradas, espelhando as do LocacaoRepository
+ * para que o LocacaoService possa combinar os dois resultados.
+ */
+@Repository
+public interface LocacaoArquivadaRepository extends JpaRepository<LocacaoArquivada, Long> {
+
+    // Copia as locações informadas de locacoes; o status vira a posição em StatusLocacao
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO locacoes_arquivo
+                (id, data_retirada, data_devolucao, usuario_id, veiculo_id, categoria, observacoes, valor_total, status)
+            SELECT id, data_retirada, data_devolucao, usuario_id, veiculo_id, categoria, observacoes, valor_total,
+                   CASE status WHEN 'ATIVA' THEN 0 WHEN 'FINALIZADA' THEN 1 ELSE 2 END
+            FROM locacoes
+            WHERE id IN (:ids)
+            """)
+    int copiarDeLocacoes(@Param("ids") List<Long> ids);
+
+    // Data de retirada mais recente do arquivo (null se vazio)
+    @Query("SELECT MAX(a.dataRetirada) FROM LocacaoArquivada a")
+    LocalDate buscarMaiorRetirada();
+
+    // ========== PROJEÇÕES (LEITURA SEM ENTIDADES GERENCIADAS) ==========
+
+    String PROJECAO_LOCACAO_ARQUIVADA = "SELECT new locadora.backend.dto.LocacaoDTO("
+            + "a.id, a.dataRetirada, a.dataDevolucao, a.observacoes, a.valorTotal, a.status, "
+            + "v.id, v.modelo, v.marca, v.placa, v.ano, v.categoria, v.valorDiaria, v.disponivel, v.descricao, "
+            + "u.id, u.nome, u.email, u.cpf) "
+            + "FROM LocacaoArquivada a JOIN a.veiculo v JOIN a.usuario u";
+
+    @Query(PROJECAO_LOCACAO_ARQUIVADA)
+    List<LocacaoDTO> listarProjetado();
+
+    @Query(PROJECAO_LOCACAO_ARQUIVADA + " WHERE a.usuario.id = :usuarioId ORDER BY a.dataRetirada DESC")
+    List<LocacaoDTO> listarProjetadoPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Query(PROJECAO_LOCACAO_ARQUIVADA + " WHERE a.id = :id")
+    Optional<LocacaoDTO> buscarProjetadoPorId(@Param("id") Long id);
+
+    @Query(PROJECAO_LOCACAO_ARQUIVADA + """
+             WHERE a.usuario.id = :usuarioId
+              AND (:status IS NULL OR a.status = :status)
+              AND (:retiradaDe IS NULL OR a.dataRetirada >= :retiradaDe)
+              AND (:retiradaAte IS NULL OR a.dataRetirada <= :retiradaAte)
+              AND (:ultimoId IS NULL
+                   OR a.dataRetirada < :ultimaRetirada
+                   OR (a.dataRetirada = :ultimaRetirada AND a.id < :ultimoId))
+            ORDER BY a.dataRetirada DESC, a.id DESC
+            """)
+    List<LocacaoDTO> buscarPaginaPorUsuario(
+            @Param("usuarioId") Long usuarioId,
+            @Param("status") StatusLocacao status,
+            @Param("retiradaDe") LocalDate retiradaDe,
+            @Param("retiradaAte") LocalDate retiradaAte,
+            @Param("ultimaRetirada") LocalDate ultimaRetirada,
+            @Param("ultimoId") Long ultimoId,
+            Limit limite);
+
+    // ========== AGREGAÇÕES ==========
+
+    // Mesma categoria das locações ativas: a gravada na locação, a do veículo só para as antigas
+    String FILTROS_TOTAIS_ARQUIVO = """
+             WHERE (:usuarioId IS NULL OR a.usuario.id = :usuarioId)
+              AND (:retiradaDe IS NULL OR a.dataRetirada >= :retiradaDe)
+              AND (:retiradaAte IS NULL OR a.dataRetirada <= :retiradaAte)
+              AND (:categoria IS NULL OR COALESCE(a.categoria, v.categoria) = :categoria)
+            """;
+
+    @Query("SELECT new locadora.backend.dto.TotaisLocacaoDTO(a.status, COUNT(a), SUM(a.valorTotal)) "
+            + "FROM LocacaoArquivada a JOIN a.veiculo v" + FILTROS_TOTAIS_ARQUIVO + "GROUP BY a.status")
+    List<TotaisLocacaoDTO> totalizarPorStatus(
+            @Param("usuarioId") Long usuarioId,
+            @Param("retiradaDe") LocalDate retiradaDe,
+            @Param("retiradaAte") LocalDate retiradaAte,
+            @Param("categoria") String categoria);
+
+    @Query("SELECT new locadora.backend.dto.TotaisLocacaoDTO(COALESCE(a.categoria, v.categoria), a.status, "
+            + "COUNT(a), SUM(a.valorTotal)) "
+            + "FROM LocacaoArquivada a JOIN a.veiculo v" + FILTROS_TOTAIS_ARQUIVO
+            + "GROUP BY COALESCE(a.categoria, v.categoria), a.status")
+    List<TotaisLocacaoDTO> totalizarPorCategoriaEStatus(
+            @Param("usuarioId") Long usuarioId,
+            @Param("retiradaDe") LocalDate retiradaDe,
+            @Param("retiradaAte") LocalDate retiradaAte,
+            @Param("categoria") String categoria);
+}
@@ -1,19 +1,156 @@
 package locadora.backend.repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import locadora.backend.dto.LocacaoDTO;
+import locadora.backend.dto.TotaisLocacaoDTO;
 import locadora.backend.model.Locacao;
 import locadora.backend.model.StatusLocacao;
 import locadora.backend.model.Usuario;
 
 @Repository
 public interface LocacaoRepository extends JpaRepository<Locacao, Long> {
+
+    // Consultas que devolvem entidades já trazem veículo, usuário e endereço no mesmo
+    // SELECT, para que new LocacaoDTO(locacao) não dispare uma consulta por linha
+
+    @EntityGraph(attributePaths = {"veiculo", "usuario", "usuario.endereco"})
     List<Locacao> findByUsuario(Usuario usuario);
+
+    @EntityGraph(attributePaths = {"veiculo", "usuario", "usuario.endereco"})
     List<Locacao> findByUsuarioId(Long usuarioId);
+
+    @EntityGraph(attributePaths = {"veiculo", "usuario", "usuario.endereco"})
     List<Locacao> findByStatus(StatusLocacao status);
+
+    @EntityGraph(attributePaths = {"veiculo", "usuario", "usuario.endereco"})
     List<Locacao> findByVeiculoId(Long veiculoId);
+
+    @EntityGraph(attributePaths = {"veiculo", "usuario", "usuario.endereco"})
     List<Locacao> findByUsuarioIdOrderByDataRetiradaDesc(Long usuarioId);
+
+    // Locação com as associações usadas pelo DTO, para finalizar/cancelar
+    @Query("SELECT l FROM Locacao l JOIN FETCH l.veiculo JOIN FETCH l.usuario u LEFT JOIN FETCH u.endereco "
+            + "WHERE l.id = :id")
+    Optional<Locacao> buscarComAssociacoes(@Param("id") Long id);
+
+    // Condicional: de duas transições simultâneas da mesma locação, só uma sai de ATIVA
+    @Modifying
+    @Query("UPDATE Locacao l SET l.status = :novo "
+            + "WHERE l.id = :id AND l.status = locadora.backend.model.StatusLocacao.ATIVA")
+    int encerrarSeAtiva(@Param("id") Long id, @Param("novo") StatusLocacao novo);
+
+    // Períodos das locações ativas (veiculoId, locacaoId, retirada, devolução) para o índice de disponibilidade
+    @Query("SELECT l.veiculo.id, l.id, l.dataRetirada, l.dataDevolucao FROM Locacao l "
+            + "WHERE l.status = locadora.backend.model.StatusLocacao.ATIVA")
+    List<Object[]> listarPeriodosAtivos();
+
+    // Sobreposição com o período semiaberto [inicio, fim); locações de um só dia ocupam [retirada, retirada + 1)
+    @Query("""
+            SELECT COUNT(l) > 0 FROM Locacao l
+            WHERE l.veiculo.id = :veiculoId
+              AND l.status = locadora.backend.model.StatusLocacao.ATIVA
+              AND l.dataRetirada < :fim
+              AND (l.dataDevolucao IS NULL OR l.dataDevolucao > :inicio OR l.dataRetirada >= :inicio)
+            """)
+    boolean existeSobreposicao(@Param("veiculoId") Long veiculoId,
+                               @Param("inicio") LocalDate inicio,
+                               @Param("fim") LocalDate fim);
+
+    // ========== PROJEÇÕES (LEITURA SEM ENTIDADES GERENCIADAS) ==========
+
+    String PROJECAO_LOCACAO = "SELECT new locadora.backend.dto.LocacaoDTO("
+            + "l.id, l.dataRetirada, l.dataDevolucao, l.observacoes, l.valorTotal, l.status, "
+            + "v.id, v.modelo, v.marca, v.placa, v.ano, v.categoria, v.valorDiaria, v.disponivel, v.descricao, "
+            + "u.id, u.nome, u.email, u.cpf) "
+            + "FROM Locacao l JOIN l.veiculo v JOIN l.usuario u";
+
+    @Query(PROJECAO_LOCACAO)
+    List<LocacaoDTO> listarProjetado();
+
+    @Query(PROJECAO_LOCACAO + " WHERE u.id = :usuarioId ORDER BY l.dataRetirada DESC")
+    List<LocacaoDTO> listarProjetadoPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Query(PROJECAO_LOCACAO + " WHERE l.id = :id")
+    Optional<LocacaoDTO> buscarProjetadoPorId(@Param("id") Long id);
+
+    // Histórico do usuário paginado por cursor (retirada decrescente, desempate pelo id)
+    @Query(PROJECAO_LOCACAO + """
+             WHERE l.usuario.id = :usuarioId
+              AND (:status IS NULL OR l.status = :status)
+              AND (:retiradaDe IS NULL OR l.dataRetirada >= :retiradaDe)
+              AND (:retiradaAte IS NULL OR l.dataRetirada <= :retiradaAte)
+              AND (:ultimoId IS NULL
+                   OR l.dataRetirada < :ultimaRetirada
+                   OR (l.dataRetirada = :ultimaRetirada AND l.id < :ultimoId))
+            ORDER BY l.dataRetirada DESC, l.id DESC
+            """)
+    List<LocacaoDTO> buscarPaginaPorUsuario(
+            @Param("usuarioId") Long usuarioId,
+            @Param("status") StatusLocacao status,
+            @Param("retiradaDe") LocalDate retiradaDe,
+            @Param("retiradaAte") LocalDate retiradaAte,
+            @Param("ultimaRetirada") LocalDate ultimaRetirada,
+            @Param("ultimoId") Long ultimoId,
+            Limit limite);
+
+    boolean existsByUsuarioIdAndStatus(Long usuarioId, StatusLocacao status);
+
+    // ========== AGREGAÇÕES (CONTAGEM E SOMA NO BANCO) ==========
+
+    // usuarioId nulo = todas as locações; período sobre a data de retirada (inclusivo).
+    // Categoria gravada na locação (a do veículo só para locações anteriores a essa coluna), como na receita diária
+    String FILTROS_TOTAIS = """
+             WHERE (:usuarioId IS NULL OR l.usuario.id = :usuarioId)
+              AND (:retiradaDe IS NULL OR l.dataRetirada >= :retiradaDe)
+              AND (:retiradaAte IS NULL OR l.dataRetirada <= :retiradaAte)
+              AND (:categoria IS NULL OR COALESCE(l.categoria, v.categoria) = :categoria)
+            """;
+
+    @Query("SELECT new locadora.backend.dto.TotaisLocacaoDTO(l.status, COUNT(l), SUM(l.valorTotal)) "
+            + "FROM Locacao l JOIN l.veiculo v" + FILTROS_TOTAIS + "GROUP BY l.status")
+    List<TotaisLocacaoDTO> totalizarPorStatus(
+            @Param("usuarioId") Long usuarioId,
+            @Param("retiradaDe") LocalDate retiradaDe,
+            @Param("retiradaAte") LocalDate retiradaAte,
+            @Param("categoria") String categoria);
+
+    @Query("SELECT new locadora.backend.dto.TotaisLocacaoDTO(COALESCE(l.categoria, v.categoria), l.status, "
+            + "COUNT(l), SUM(l.valorTotal)) "
+            + "FROM Locacao l JOIN l.veiculo v" + FILTROS_TOTAIS + "GROUP BY COALESCE(l.categoria, v.categoria), l.status "
+            + "ORDER BY COALESCE(l.categoria, v.categoria), l.status")
+    List<TotaisLocacaoDTO> totalizarPorCategoriaEStatus(
+            @Param("usuarioId") Long usuarioId,
+            @Param("retiradaDe") LocalDate retiradaDe,
+            @Param("retiradaAte") LocalDate retiradaAte,
+            @Param("categoria") String categoria);
+
+    // ========== ARQUIVAMENTO ==========
+
+    // Locações encerradas cuja devolução (ou retirada, se não houver) é anterior ao limite, em ordem de id
+    @Query("""
+            SELECT l.id FROM Locacao l
+            WHERE l.status <> locadora.backend.model.StatusLocacao.ATIVA
+              AND l.dataRetirada < :limite
+              AND COALESCE(l.dataDevolucao, l.dataRetirada) < :limite
+              AND l.id > :ultimoId
+            ORDER BY l.id
+            """)
+    List<Long> buscarIdsParaArquivar(@Param("limite") LocalDate limite,
+                                     @Param("ultimoId") Long ultimoId,
+                                     Limit lote);
+
+    @Modifying
+    @Query("DELETE FROM Locacao l WHERE l.id IN :ids")
+    int removerPorIds(@Param("ids") List<Long> ids);
 }
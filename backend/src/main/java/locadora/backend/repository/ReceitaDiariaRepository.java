@@ -0,0 +1,103 @@
+package locadora.backend.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import locadora.backend.model.ReceitaDiaria;
+import locadora.backend.model.StatusLocacao;
+
+/**
+ * Mesmo esquema do EstatisticasLocacaoUsuarioRepository: cada criação/encerramento
+ * soma no próprio banco (upsert), sem ler o balde antes.
+ */
+@Repository
+public interface ReceitaDiariaRepository extends JpaRepository<ReceitaDiaria, ReceitaDiaria.Chave> {
+
+    // Soma (ou subtrai, com valores negativos) no balde do dia/categoria/status
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO receita_diaria (dia, categoria, status, quantidade, valor_total, atualizado_em)
+            VALUES (:dia, :categoria, :status, :quantidade, :valor, :agora)
+            ON DUPLICATE KEY UPDATE
+                quantidade = quantidade + VALUES(quantidade),
+                valor_total = valor_total + VALUES(valor_total),
+                atualizado_em = VALUES(atualizado_em)
+            """)
+    int somar(@Param("dia") LocalDate dia,
+              @Param("categoria") String categoria,
+              @Param("status") String status,
+              @Param("quantidade") long quantidade,
+              @Param("valor") BigDecimal valor,
+              @Param("agora") LocalDateTime agora);
+
+    // Recalcula os baldes dos dias em [inicio, fim] a partir de locacoes e locacoes_arquivo (categoria
+    // gravada na locação; a atual do veículo só para locações anteriores a essa coluna). O intervalo
+    // limita as linhas lidas (e travadas) por transação, como as faixas de usuário das estatísticas
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO receita_diaria (dia, categoria, status, quantidade, valor_total, atualizado_em)
+            SELECT l.data_retirada, COALESCE(l.categoria, v.categoria), l.status, COUNT(*),
+                   COALESCE(SUM(l.valor_total), 0), :agora
+            FROM (SELECT veiculo_id, categoria, status, valor_total, data_retirada FROM locacoes
+                  WHERE data_retirada BETWEEN :inicio AND :fim
+                  UNION ALL
+                  SELECT veiculo_id, categoria,
+                         CASE status WHEN 0 THEN 'ATIVA' WHEN 1 THEN 'FINALIZADA' ELSE 'CANCELADA' END,
+                         valor_total, data_retirada FROM locacoes_arquivo
+                  WHERE data_retirada BETWEEN :inicio AND :fim) l
+            JOIN veiculos v ON v.id = l.veiculo_id
+            GROUP BY l.data_retirada, COALESCE(l.categoria, v.categoria), l.status
+            ON DUPLICATE KEY UPDATE
+                quantidade = VALUES(quantidade),
+                valor_total = VALUES(valor_total),
+                atualizado_em = VALUES(atualizado_em)
+            """)
+    int recalcularPeriodo(@Param("inicio") LocalDate inicio,
+                          @Param("fim") LocalDate fim,
+                          @Param("agora") LocalDateTime agora);
+
+    // Baldes de [inicio, fim] que a reconstrução não regravou e ninguém alterou desde que ela começou
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            DELETE FROM receita_diaria
+            WHERE dia BETWEEN :inicio AND :fim AND atualizado_em < :agora
+            """)
+    int removerAnteriores(@Param("inicio") LocalDate inicio,
+                          @Param("fim") LocalDate fim,
+                          @Param("agora") LocalDateTime agora);
+
+    // Menor data entre retiradas e baldes existentes (baldes órfãos também precisam ser percorridos); null se vazio
+    @Query(nativeQuery = true, value = """
+            SELECT MIN(d) FROM (SELECT MIN(data_retirada) AS d FROM locacoes
+                                UNION ALL SELECT MIN(data_retirada) FROM locacoes_arquivo
+                                UNION ALL SELECT MIN(dia) FROM receita_diaria) x
+            """)
+    LocalDate menorDia();
+
+    @Query(nativeQuery = true, value = """
+            SELECT MAX(d) FROM (SELECT MAX(data_retirada) AS d FROM locacoes
+                                UNION ALL SELECT MAX(data_retirada) FROM locacoes_arquivo
+                                UNION ALL SELECT MAX(dia) FROM receita_diaria) x
+            """)
+    LocalDate maiorDia();
+
+    @Query("""
+            SELECT r FROM ReceitaDiaria r
+            WHERE r.chave.dia BETWEEN :inicio AND :fim
+              AND (:categoria IS NULL OR r.chave.categoria = :categoria)
+              AND (:status IS NULL OR r.chave.status = :status)
+            ORDER BY r.chave.dia
+            """)
+    List<ReceitaDiaria> listarPeriodo(@Param("inicio") LocalDate inicio,
+                                      @Param("fim") LocalDate fim,
+                                      @Param("categoria") String categoria,
+                                      @Param("status") StatusLocacao status);
+}
@@ -0,0 +1,35 @@
+package locadora.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import locadora.backend.model.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByHash(String hash);
+
+    // Condicional: de duas renovações simultâneas com o mesmo token, só uma marca o uso
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usadoEm = :agora WHERE r.id = :id AND r.usadoEm IS NULL")
+    int marcarUsado(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.usuarioId = :usuarioId")
+    int removerDoUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.hash = :hash")
+    int removerPorHash(@Param("hash") String hash);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiraEm < :agora")
+    int removerExpirados(@Param("agora") LocalDateTime agora);
+}
@@ -0,0 +1,23 @@
+package locadora.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import locadora.backend.model.RevogacaoAcesso;
+
+@Repository
+public interface RevogacaoAcessoRepository extends JpaRepository<RevogacaoAcesso, Long> {
+
+    @Query("SELECT r FROM RevogacaoAcesso r WHERE r.revogadoEm >= :desde")
+    List<RevogacaoAcesso> listarDesde(@Param("desde") LocalDateTime desde);
+
+    @Modifying
+    @Query("DELETE FROM RevogacaoAcesso r WHERE r.revogadoEm < :limite")
+    int removerAnteriores(@Param("limite") LocalDateTime limite);
+}
@@ -1,16 +1,48 @@
 package locadora.backend.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import locadora.backend.dto.UsuarioDTO;
+import locadora.backend.dto.UsuarioSimplificadoDTO;
 import locadora.backend.model.Usuario;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    // Endereço é EAGER: sem o grafo viria em um segundo SELECT a cada usuário autenticado
+    @EntityGraph(attributePaths = "endereco")
     Optional<Usuario> findByEmail(String email);
     Optional<Usuario> findByCpf(String cpf);
     boolean existsByEmail(String email);
     boolean existsByCpf(String cpf);
+
+    // ========== PROJEÇÕES (LEITURA SEM ENTIDADES GERENCIADAS) ==========
+
+    String PROJECAO_USUARIO = "SELECT new locadora.backend.dto.UsuarioDTO("
+            + "u.id, u.nome, u.cpf, u.email, u.telefone, u.dataNascimento, u.ativo, u.isFuncionario, "
+            + "u.criadoEm, u.atualizadoEm, "
+            + "e.id, e.cep, e.logradouro, e.numero, e.complemento, e.bairro, e.cidade, e.estado) "
+            + "FROM Usuario u LEFT JOIN u.endereco e";
+
+    @Query(PROJECAO_USUARIO)
+    List<UsuarioDTO> listarProjetado();
+
+    @Query(PROJECAO_USUARIO + " WHERE u.isFuncionario = :funcionario")
+    List<UsuarioDTO> listarProjetadoPorTipo(@Param("funcionario") Boolean funcionario);
+
+    @Query(PROJECAO_USUARIO + " WHERE u.id = :id")
+    Optional<UsuarioDTO> buscarProjetadoPorId(@Param("id") Long id);
+
+    @Query(PROJECAO_USUARIO + " WHERE u.email = :email")
+    Optional<UsuarioDTO> buscarProjetadoPorEmail(@Param("email") String email);
+
+    @Query("SELECT new locadora.backend.dto.UsuarioSimplificadoDTO(u.id, u.nome, u.email, u.cpf) "
+            + "FROM Usuario u WHERE u.id = :id")
+    Optional<UsuarioSimplificadoDTO> buscarSimplificadoPorId(@Param("id") Long id);
 }
@@ -1,11 +1,21 @@
 package locadora.backend.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import locadora.backend.dto.VeiculoDTO;
 import locadora.backend.model.Veiculo;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VeiculoRepository extends JpaRepository<Veiculo, Long> {
@@ -13,4 +23,130 @@ public interface VeiculoRepository extends JpaRepository<Veiculo, Long> {
     List<Veiculo> findByCategoria(String categoria);
     List<Veiculo> findByMarca(String marca);
     boolean existsByPlaca(String placa);
+
+    // ========== PROJEÇÕES (LEITURA SEM ENTIDADES GERENCIADAS) ==========
+
+    String PROJECAO_VEICULO = "new locadora.backend.dto.VeiculoDTO("
+            + "v.id, v.modelo, v.marca, v.placa, v.ano, v.categoria, v.valorDiaria, v.disponivel, v.descricao)";
+
+    @Query("SELECT " + PROJECAO_VEICULO + " FROM Veiculo v")
+    List<VeiculoDTO> listarProjetado();
+
+    @Query("SELECT " + PROJECAO_VEICULO + " FROM Veiculo v WHERE v.disponivel = true")
+    List<VeiculoDTO> listarDisponiveisProjetado();
+
+    @Query("SELECT " + PROJECAO_VEICULO + " FROM Veiculo v WHERE v.categoria = :categoria")
+    List<VeiculoDTO> listarProjetadoPorCategoria(@Param("categoria") String categoria);
+
+    @Query("SELECT " + PROJECAO_VEICULO + " FROM Veiculo v WHERE v.id = :id")
+    Optional<VeiculoDTO> buscarProjetadoPorId(@Param("id") Long id);
+
+    // Carrega o veículo para uma nova locação, incrementando a versão no commit:
+    // duas locações simultâneas do mesmo veículo não conseguem ser confirmadas juntas
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT v FROM Veiculo v WHERE v.id = :id")
+    Optional<Veiculo> buscarParaLocacao(@Param("id") Long id);
+
+    // Verificação de placas duplicadas em lote (uma consulta por bloco da importação)
+    @Query("SELECT v.placa FROM Veiculo v WHERE v.placa IN :placas")
+    List<String> findPlacasExistentes(@Param("placas") Collection<String> placas);
+
+    // Contagem agrupada usada para montar as facetas na inicialização
+    @Query("""
+            SELECT v.categoria, v.marca, v.ano, v.valorDiaria, v.disponivel, COUNT(v)
+            FROM Veiculo v
+            GROUP BY v.categoria, v.marca, v.ano, v.valorDiaria, v.disponivel
+            """)
+    List<Object[]> contarAgrupadoParaFacetas();
+
+    // ========== ATUALIZAÇÕES EM LOTE (incrementam a versão dos veículos) ==========
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE VERSIONED Veiculo v SET v.disponivel = :disponivel WHERE v.id IN :ids")
+    int atualizarDisponibilidadePorIds(@Param("ids") Collection<Long> ids, @Param("disponivel") Boolean disponivel);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE VERSIONED Veiculo v SET v.disponivel = :disponivel WHERE v.categoria = :categoria")
+    int atualizarDisponibilidadePorCategoria(@Param("categoria") String categoria, @Param("disponivel") Boolean disponivel);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE VERSIONED Veiculo v SET v.valorDiaria = :valor WHERE v.id IN :ids")
+    int definirValorDiariaPorIds(@Param("ids") Collection<Long> ids, @Param("valor") BigDecimal valor);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE VERSIONED Veiculo v SET v.valorDiaria = :valor WHERE v.categoria = :categoria")
+    int definirValorDiariaPorCategoria(@Param("categoria") String categoria, @Param("valor") BigDecimal valor);
+
+    // Reajuste arredondado para centavos (meio para cima), sem chegar a zero; o CAST evita que
+    // o fator seja vinculado com a escala de valorDiaria (2 casas) e perca precisão
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE VERSIONED Veiculo v SET v.valorDiaria = GREATEST(ROUND(v.valorDiaria * CAST(:fator AS BigDecimal(19, 6)), 2), 0.01) WHERE v.id IN :ids")
+    int reajustarValorDiariaPorIds(@Param("ids") Collection<Long> ids, @Param("fator") BigDecimal fator);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE VERSIONED Veiculo v SET v.valorDiaria = GREATEST(ROUND(v.valorDiaria * CAST(:fator AS BigDecimal(19, 6)), 2), 0.01) WHERE v.categoria = :categoria")
+    int reajustarValorDiariaPorCategoria(@Param("categoria") String categoria, @Param("fator") BigDecimal fator);
+
+    // ========== CATÁLOGO PAGINADO POR CURSOR (KEYSET) ==========
+
+    String FILTROS_CATALOGO = """
+            (:categoria IS NULL OR v.categoria = :categoria)
+            AND (:marca IS NULL OR v.marca = :marca)
+            AND (:precoMin IS NULL OR v.valorDiaria >= :precoMin)
+            AND (:precoMax IS NULL OR v.valorDiaria <= :precoMax)
+            AND (:anoMin IS NULL OR v.ano >= :anoMin)
+            AND (:anoMax IS NULL OR v.ano <= :anoMax)
+            AND (:disponivel IS NULL OR v.disponivel = :disponivel)
+            """;
+
+    @Query("SELECT " + PROJECAO_VEICULO + " FROM Veiculo v WHERE " + FILTROS_CATALOGO + """
+            AND (:ultimoId IS NULL OR v.id > :ultimoId)
+            ORDER BY v.id
+            """)
+    List<VeiculoDTO> buscarPaginaPorId(
+            @Param("categoria") String categoria,
+            @Param("marca") String marca,
+            @Param("precoMin") BigDecimal precoMin,
+            @Param("precoMax") BigDecimal precoMax,
+            @Param("anoMin") Integer anoMin,
+            @Param("anoMax") Integer anoMax,
+            @Param("disponivel") Boolean disponivel,
+            @Param("ultimoId") Long ultimoId,
+            Limit limite);
+
+    @Query("SELECT " + PROJECAO_VEICULO + " FROM Veiculo v WHERE " + FILTROS_CATALOGO + """
+            AND (:ultimoId IS NULL
+                 OR v.valorDiaria > :ultimoPreco
+                 OR (v.valorDiaria = :ultimoPreco AND v.id > :ultimoId))
+            ORDER BY v.valorDiaria, v.id
+            """)
+    List<VeiculoDTO> buscarPaginaPorPreco(
+            @Param("categoria") String categoria,
+            @Param("marca") String marca,
+            @Param("precoMin") BigDecimal precoMin,
+            @Param("precoMax") BigDecimal precoMax,
+            @Param("anoMin") Integer anoMin,
+            @Param("anoMax") Integer anoMax,
+            @Param("disponivel") Boolean disponivel,
+            @Param("ultimoPreco") BigDecimal ultimoPreco,
+            @Param("ultimoId") Long ultimoId,
+            Limit limite);
+
+    @Query("SELECT " + PROJECAO_VEICULO + " FROM Veiculo v WHERE " + FILTROS_CATALOGO + """
+            AND (:ultimoId IS NULL
+                 OR v.ano > :ultimoAno
+                 OR (v.ano = :ultimoAno AND v.id > :ultimoId))
+            ORDER BY v.ano, v.id
+            """)
+    List<VeiculoDTO> buscarPaginaPorAno(
+            @Param("categoria") String categoria,
+            @Param("marca") String marca,
+            @Param("precoMin") BigDecimal precoMin,
+            @Param("precoMax") BigDecimal precoMax,
+            @Param("anoMin") Integer anoMin,
+            @Param("anoMax") Integer anoMax,
+            @Param("disponivel") Boolean disponivel,
+            @Param("ultimoAno") Integer ultimoAno,
+            @Param("ultimoId") Long ultimoId,
+            Limit limite);
 }
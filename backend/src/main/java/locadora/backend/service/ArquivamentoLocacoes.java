@@ -0,0 +1,102 @@
+package locadora.backend.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import locadora.backend.repository.LocacaoArquivadaRepository;
+import locadora.backend.repository.LocacaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Move locações encerradas antigas de locacoes para locacoes_arquivo, em lotes.
+ *
+ * A tabela principal (e seus índices) fica só com as locações ativas e o histórico
+ * recente. O arquivamento guarda a maior data de retirada arquivada: consultas cujo
+ * período começa depois dela não precisam olhar o arquivo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArquivamentoLocacoes {
+
+    private final LocacaoRepository locacaoRepository;
+    private final LocacaoArquivadaRepository locacaoArquivadaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${arquivamento.locacoes.idade-dias:365}")
+    private int idadeDias;
+
+    @Value("${arquivamento.locacoes.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    // null = arquivo vazio
+    private volatile LocalDate maiorRetiradaArquivada;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        maiorRetiradaArquivada = locacaoArquivadaRepository.buscarMaiorRetirada();
+    }
+
+    /**
+     * Indica se o período de retirada [retiradaDe, ...) pode conter locações arquivadas
+     * (retiradaDe nulo = período sem início)
+     */
+    public boolean abrangeArquivo(LocalDate retiradaDe) {
+        LocalDate maior = maiorRetiradaArquivada;
+        return maior != null && (retiradaDe == null || !retiradaDe.isAfter(maior));
+    }
+
+    /**
+     * Arquiva as locações finalizadas/canceladas com devolução há mais de idadeDias.
+     * Cada lote é copiado e removido da tabela principal na mesma transação.
+     *
+     * @return quantidade de locações arquivadas
+     */
+    @Scheduled(cron = "${arquivamento.locacoes.cron:0 45 3 * * *}")
+    public int arquivar() {
+        LocalDate limite = LocalDate.now().minusDays(idadeDias);
+        long inicio = System.currentTimeMillis();
+        // Toda locação arquivada nesta execução tem retirada anterior ao limite: o horizonte é
+        // ampliado antes dos commits para que nenhuma consulta deixe de olhar o arquivo no meio
+        LocalDate maior = maiorRetiradaArquivada;
+        if (maior == null || maior.isBefore(limite.minusDays(1))) {
+            maiorRetiradaArquivada = limite.minusDays(1);
+        }
+        int total = 0;
+        Long ultimoId = 0L;
+        while (true) {
+            Long aPartirDe = ultimoId;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> lote = locacaoRepository.buscarIdsParaArquivar(limite, aPartirDe, Limit.of(tamanhoLote));
+                if (!lote.isEmpty()) {
+                    locacaoArquivadaRepository.copiarDeLocacoes(lote);
+                    locacaoRepository.removerPorIds(lote);
+                }
+                return lote;
+            });
+            if (ids.isEmpty()) {
+                break;
+            }
+            total += ids.size();
+            ultimoId = ids.get(ids.size() - 1);
+            if (ids.size() < tamanhoLote) {
+                break;
+            }
+        }
+        carregar();
+        if (total > 0) {
+            log.info("Locações arquivadas: {} com devolução anterior a {} em {} ms", total, limite,
+                    System.currentTimeMillis() - inicio);
+        }
+        return total;
+    }
+}
@@ -2,9 +2,7 @@ package locadora.backend.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import locadora.backend.dto.AuthResponse;
 import locadora.backend.dto.LoginRequest;
@@ -18,13 +16,15 @@ import locadora.backend.repository.UsuarioRepository;
 public class AuthService {
 
     private final UsuarioRepository usuarioRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final HashSenhas hashSenhas;
     private final JwtService jwtService;
+    private final RefreshTokens refreshTokens;
 
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
 
-    @Transactional
+    // Sem transação envolvendo o método: o hash da senha (no pool de HashSenhas) não segura conexão do banco;
+    // save() grava usuário e endereço na sua própria transação
     public AuthResponse register(RegisterRequest request) {
         // Validar se email já existe
         if (usuarioRepository.existsByEmail(request.getEmail())) {
@@ -54,7 +54,7 @@ public class AuthService {
         usuario.setNome(request.getNome());
         usuario.setCpf(request.getCpf());
         usuario.setEmail(request.getEmail());
-        usuario.setSenha(passwordEncoder.encode(request.getSenha()));
+        usuario.setSenha(hashSenhas.codificar(request.getSenha()));
         usuario.setTelefone(request.getTelefone());
         usuario.setEndereco(endereco);
         usuario.setAtivo(true);
@@ -62,11 +62,7 @@ public class AuthService {
 
         usuario = usuarioRepository.save(usuario);
 
-        // Gerar token com a informação de funcionário
-        String token = jwtService.generateToken(usuario.getEmail(), usuario.getId(), usuario.getIsFuncionario());
-
-        return new AuthResponse(token, usuario.getId(), usuario.getNome(), 
-                              usuario.getEmail(), usuario.getIsFuncionario(), jwtExpiration);
+        return emitirTokens(usuario);
     }
 
     public AuthResponse login(LoginRequest request) {
@@ -75,7 +71,7 @@ public class AuthService {
                 .orElseThrow(() -> new RuntimeException("Email ou senha inválidos"));
 
         // Verificar senha
-        if (!passwordEncoder.matches(request.getSenha(), usuario.getSenha())) {
+        if (!hashSenhas.conferir(request.getSenha(), usuario.getSenha())) {
             throw new RuntimeException("Email ou senha inválidos");
         }
 
@@ -84,10 +80,39 @@ public class AuthService {
             throw new RuntimeException("Usuário inativo");
         }
 
+        return emitirTokens(usuario);
+    }
+
+    /**
+     * Troca um refresh token válido por um novo token de acesso e um novo refresh token (rotação).
+     * Papel e situação vêm do banco, então rebaixamentos e desativações valem a partir daqui.
+     */
+    public AuthResponse renovar(String refreshToken) {
+        RefreshTokens.Renovacao renovacao = refreshTokens.rotacionar(refreshToken)
+                .orElseThrow(() -> new RuntimeException("Sessão expirada, faça login novamente"));
+
+        Usuario usuario = usuarioRepository.findById(renovacao.usuarioId())
+                .orElseThrow(() -> new RuntimeException("Sessão expirada, faça login novamente"));
+        if (!usuario.getAtivo()) {
+            throw new RuntimeException("Usuário inativo");
+        }
+
+        return emitirTokens(usuario, renovacao.sucessor());
+    }
+
+    public void logout(String refreshToken) {
+        refreshTokens.revogar(refreshToken);
+    }
+
+    private AuthResponse emitirTokens(Usuario usuario) {
+        return emitirTokens(usuario, refreshTokens.emitir(usuario.getId()));
+    }
+
+    private AuthResponse emitirTokens(Usuario usuario, String refreshToken) {
         // Gerar token com a informação de funcionário
         String token = jwtService.generateToken(usuario.getEmail(), usuario.getId(), usuario.getIsFuncionario());
 
-        return new AuthResponse(token, usuario.getId(), usuario.getNome(), 
+        return new AuthResponse(token, refreshToken, usuario.getId(), usuario.getNome(),
                               usuario.getEmail(), usuario.getIsFuncionario(), jwtExpiration);
     }
 }
@@ -0,0 +1,72 @@
+package locadora.backend.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import locadora.backend.cache.CacheLocal;
+import locadora.backend.dto.VeiculoDTO;
+import locadora.backend.event.CatalogoAlteradoEvent;
+import locadora.backend.event.VeiculoAlteradoEvent;
+
+/**
+ * Caches de leitura do catálogo de veículos (por id e por categoria).
+ * A lista de disponíveis é servida por {@link CatalogoDisponiveisSerializado}.
+ * As entradas são invalidadas depois do commit de cada alteração de veículo,
+ * apenas nas chaves afetadas pela alteração.
+ */
+@Component
+public class CacheCatalogoVeiculos {
+
+    private final CacheLocal<Long, VeiculoDTO> porId;
+    private final CacheLocal<String, List<VeiculoDTO>> porCategoria;
+
+    public CacheCatalogoVeiculos(
+            @Value("${cache.veiculos.tamanho-maximo:10000}") int tamanhoMaximo,
+            @Value("${cache.veiculos.ttl-segundos:300}") long ttlSegundos) {
+        Duration ttl = Duration.ofSeconds(ttlSegundos);
+        this.porId = new CacheLocal<>("veiculos.porId", tamanhoMaximo, ttl);
+        this.porCategoria = new CacheLocal<>("veiculos.porCategoria", 100, ttl);
+    }
+
+    public VeiculoDTO buscarPorId(Long id, Supplier<VeiculoDTO> carregador) {
+        return porId.obter(id, carregador);
+    }
+
+    public List<VeiculoDTO> buscarPorCategoria(String categoria, Supplier<List<VeiculoDTO>> carregador) {
+        return porCategoria.obter(categoria, () -> List.copyOf(carregador.get()));
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarVeiculo(VeiculoAlteradoEvent evento) {
+        VeiculoDTO anterior = evento.anterior();
+        VeiculoDTO atual = evento.atual();
+
+        porId.invalidar(evento.veiculoId());
+
+        if (anterior != null) {
+            porCategoria.invalidar(anterior.getCategoria());
+        }
+        if (atual != null && (anterior == null || !Objects.equals(anterior.getCategoria(), atual.getCategoria()))) {
+            porCategoria.invalidar(atual.getCategoria());
+        }
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        porId.invalidarTodos();
+        porCategoria.invalidarTodos();
+    }
+
+    public List<CacheLocal.Estatisticas> estatisticas() {
+        return List.of(porId.estatisticas(), porCategoria.estatisticas());
+    }
+}
@@ -0,0 +1,148 @@
+package locadora.backend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import locadora.backend.dto.VeiculoDTO;
+import locadora.backend.event.CatalogoAlteradoEvent;
+import locadora.backend.event.VeiculoAlteradoEvent;
+import locadora.backend.repository.VeiculoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lista de veículos disponíveis já serializada em JSON e comprimida com gzip,
+ * pronta para ser escrita na resposta.
+ *
+ * O conteúdo é reconstruído em segundo plano depois do commit de alterações que
+ * afetam os disponíveis; até a reconstrução terminar, a versão anterior continua
+ * sendo servida. A ETag é derivada dos bytes, então só muda quando o JSON muda.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogoDisponiveisSerializado {
+
+    private final VeiculoRepository veiculoRepository;
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService reconstrucao = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "catalogo-disponiveis");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reconstrucaoPendente = new AtomicBoolean();
+
+    private volatile Conteudo atual;
+
+    /**
+     * Conteúdo pronto para envio: JSON sem compressão e comprimido, com a ETag de cada variante
+     */
+    public record Conteudo(String etag, byte[] json, String etagGzip, byte[] gzip) {
+    }
+
+    public Conteudo obter() {
+        Conteudo conteudo = atual;
+        if (conteudo != null) {
+            return conteudo;
+        }
+        // Só acontece antes da primeira construção terminar
+        synchronized (this) {
+            if (atual == null) {
+                atual = construir();
+            }
+            return atual;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        agendarReconstrucao();
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarVeiculo(VeiculoAlteradoEvent evento) {
+        if (estaDisponivel(evento.anterior()) || estaDisponivel(evento.atual())) {
+            agendarReconstrucao();
+        }
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        agendarReconstrucao();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        reconstrucao.shutdownNow();
+    }
+
+    /**
+     * Várias alterações seguidas resultam em uma só reconstrução: enquanto houver
+     * uma pendente, novos pedidos são absorvidos por ela.
+     */
+    private void agendarReconstrucao() {
+        if (reconstrucaoPendente.compareAndSet(false, true)) {
+            reconstrucao.execute(() -> {
+                // Liberado antes de consultar, para que alterações feitas durante a consulta agendem outra
+                reconstrucaoPendente.set(false);
+                try {
+                    atual = construir();
+                } catch (RuntimeException e) {
+                    log.error("Falha ao reconstruir o catálogo de disponíveis", e);
+                }
+            });
+        }
+    }
+
+    private Conteudo construir() {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(veiculoRepository.listarDisponiveisProjetado());
+            byte[] gzip = comprimir(json);
+            String hash = resumo(json);
+            return new Conteudo("\"" + hash + "\"", json, "\"" + hash + "-gzip\"", gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] comprimir(byte[] dados) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, dados.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        }
+        return saida.toByteArray();
+    }
+
+    private static String resumo(byte[] dados) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(dados);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean estaDisponivel(VeiculoDTO veiculo) {
+        return veiculo != null && Boolean.TRUE.equals(veiculo.getDisponivel());
+    }
+}
@@ -0,0 +1,144 @@
+package locadora.backend.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import locadora.backend.repository.LocacaoRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Índice de intervalos das locações ativas, por veículo.
+ *
+ * Cada locação ocupa o intervalo semiaberto [retirada, devolução), com no mínimo
+ * um dia, de modo que uma devolução e uma retirada no mesmo dia não conflitam.
+ * Os intervalos de um veículo ficam em um mapa ordenado pela data de retirada e
+ * nunca se sobrepõem, então basta olhar o intervalo que começa imediatamente
+ * antes do fim do período consultado: a verificação custa O(log n).
+ */
+@Component
+@RequiredArgsConstructor
+public class DisponibilidadeVeiculos {
+
+    private final LocacaoRepository locacaoRepository;
+
+    private final Map<Long, NavigableMap<LocalDate, Reserva>> reservasPorVeiculo = new ConcurrentHashMap<>();
+
+    private record Reserva(Long locacaoId, LocalDate inicio, LocalDate fim) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        Map<Long, NavigableMap<LocalDate, Reserva>> novas = new ConcurrentHashMap<>();
+        for (Object[] linha : locacaoRepository.listarPeriodosAtivos()) {
+            Long veiculoId = (Long) linha[0];
+            Reserva reserva = criarReserva((Long) linha[1], (LocalDate) linha[2], (LocalDate) linha[3]);
+            novas.computeIfAbsent(veiculoId, id -> new TreeMap<>()).put(reserva.inicio(), reserva);
+        }
+        synchronized (this) {
+            reservasPorVeiculo.clear();
+            reservasPorVeiculo.putAll(novas);
+        }
+    }
+
+    /**
+     * Verifica se o veículo não tem locação ativa que se sobreponha ao período
+     */
+    public boolean estaLivre(Long veiculoId, LocalDate retirada, LocalDate devolucao) {
+        NavigableMap<LocalDate, Reserva> reservas = reservasPorVeiculo.get(veiculoId);
+        if (reservas == null) {
+            return true;
+        }
+        Reserva periodo = criarReserva(null, retirada, devolucao);
+        synchronized (reservas) {
+            return conflito(reservas, periodo) == null;
+        }
+    }
+
+    /**
+     * Registra a locação se o período estiver livre (verificação e registro atômicos).
+     * Dentro de uma transação, o registro é desfeito automaticamente se ela for revertida.
+     *
+     * @return false se já existir locação ativa no período
+     */
+    public boolean reservar(Long veiculoId, Long locacaoId, LocalDate retirada, LocalDate devolucao) {
+        Reserva reserva = criarReserva(locacaoId, retirada, devolucao);
+        NavigableMap<LocalDate, Reserva> reservas = reservasPorVeiculo.computeIfAbsent(veiculoId, id -> new TreeMap<>());
+        synchronized (reservas) {
+            if (conflito(reservas, reserva) != null) {
+                return false;
+            }
+            reservas.put(reserva.inicio(), reserva);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        remover(veiculoId, reserva);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Libera o período da locação. Dentro de uma transação, só depois do commit.
+     */
+    public void liberar(Long veiculoId, Long locacaoId, LocalDate retirada, LocalDate devolucao) {
+        Reserva reserva = criarReserva(locacaoId, retirada, devolucao);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remover(veiculoId, reserva);
+                }
+            });
+        } else {
+            remover(veiculoId, reserva);
+        }
+    }
+
+    // ========== INTERVALOS ==========
+
+    /**
+     * Como os intervalos de um veículo não se sobrepõem, o único candidato a conflito
+     * é o último que começa antes do fim do período.
+     */
+    private Reserva conflito(NavigableMap<LocalDate, Reserva> reservas, Reserva periodo) {
+        Map.Entry<LocalDate, Reserva> anterior = reservas.lowerEntry(periodo.fim());
+        if (anterior != null && anterior.getValue().fim().isAfter(periodo.inicio())) {
+            return anterior.getValue();
+        }
+        return null;
+    }
+
+    private void remover(Long veiculoId, Reserva reserva) {
+        NavigableMap<LocalDate, Reserva> reservas = reservasPorVeiculo.get(veiculoId);
+        if (reservas != null) {
+            synchronized (reservas) {
+                Reserva atual = reservas.get(reserva.inicio());
+                if (atual != null && atual.locacaoId().equals(reserva.locacaoId())) {
+                    reservas.remove(reserva.inicio());
+                }
+            }
+        }
+    }
+
+    private static Reserva criarReserva(Long locacaoId, LocalDate retirada, LocalDate devolucao) {
+        // Sem data de devolução a locação fica em aberto; mesmo dia conta como uma diária
+        LocalDate fim = devolucao == null ? LocalDate.MAX
+                : devolucao.isAfter(retirada) ? devolucao : retirada.plusDays(1);
+        return new Reserva(locacaoId, retirada, fim);
+    }
+}
@@ -0,0 +1,98 @@
+package locadora.backend.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import locadora.backend.model.EstatisticasLocacaoUsuario;
+import locadora.backend.model.Locacao;
+import locadora.backend.model.StatusLocacao;
+import locadora.backend.repository.EstatisticasLocacaoUsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Contadores de locações por usuário (tabela estatisticas_locacao_usuario).
+ *
+ * O LocacaoService registra cada criação e encerramento na mesma transação da
+ * locação, então estatísticas e resumo viram uma leitura por chave primária.
+ * A reconstrução completa a partir de locacoes (e do arquivo) roda na subida e diariamente,
+ * corrigindo qualquer divergência (ex.: alterações feitas direto no banco). Ela avança por
+ * faixas de id de usuário, cada uma em uma transação curta, então só as locações da faixa
+ * ficam travadas enquanto ela é recalculada.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EstatisticasLocacoes {
+
+    private final EstatisticasLocacaoUsuarioRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${estatisticas.locacoes.reconstrucao-lote:500}")
+    private int usuariosPorLote;
+
+    /**
+     * Contadores do usuário; zerados se ele ainda não tem locações
+     */
+    @Transactional(readOnly = true)
+    public EstatisticasLocacaoUsuario obter(Long usuarioId) {
+        return repository.findById(usuarioId).orElseGet(() -> new EstatisticasLocacaoUsuario(
+                usuarioId, 0, 0, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, null,
+                LocalDateTime.now()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCriacao(Locacao locacao) {
+        repository.registrarNovaLocacao(locacao.getUsuario().getId(), locacao.getValorTotal(),
+                locacao.getDataRetirada());
+    }
+
+    /**
+     * Locação ativa que acabou de ser finalizada ou cancelada
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEncerramento(Locacao locacao) {
+        if (locacao.getStatus() == StatusLocacao.ATIVA) {
+            throw new IllegalArgumentException("Locação ainda está ativa");
+        }
+        Long usuarioId = locacao.getUsuario().getId();
+        int atualizadas = repository.registrarEncerramento(usuarioId, locacao.getStatus().name(),
+                locacao.getValorTotal());
+        if (atualizadas == 0) {
+            // Usuário com locações anteriores aos contadores: calcula a linha dele a partir do histórico
+            repository.recalcular(usuarioId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconstruir();
+    }
+
+    @Scheduled(cron = "${estatisticas.locacoes.reconstrucao-cron:0 15 3 * * *}")
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        long maiorId = repository.maiorUsuarioId();
+        int usuarios = 0;
+        for (long primeiro = 1; primeiro <= maiorId; primeiro += usuariosPorLote) {
+            long de = primeiro;
+            long ate = Math.min(maiorId, primeiro + usuariosPorLote - 1);
+            usuarios += transactionTemplate.execute(status -> {
+                int atualizados = repository.recalcularFaixa(de, ate);
+                repository.removerSemLocacoes(de, ate);
+                return atualizados;
+            });
+        }
+        log.info("Estatísticas de locação recalculadas: {} usuários em {} ms", usuarios,
+                System.currentTimeMillis() - inicio);
+    }
+}
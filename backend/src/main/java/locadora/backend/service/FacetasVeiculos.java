@@ -0,0 +1,153 @@
+package locadora.backend.service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import locadora.backend.dto.FacetasVeiculoDTO;
+import locadora.backend.dto.VeiculoDTO;
+import locadora.backend.event.CatalogoAlteradoEvent;
+import locadora.backend.event.VeiculoAlteradoEvent;
+import locadora.backend.repository.VeiculoRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Contadores agregados do catálogo para as facetas de pesquisa.
+ *
+ * Os veículos são contados por célula (categoria, marca, faixa de ano, faixa de
+ * preço, disponibilidade). As células são carregadas com uma consulta agrupada
+ * na inicialização e depois ajustadas a cada alteração de veículo, então
+ * responder às facetas percorre apenas as células, nunca a tabela veiculos.
+ */
+@Component
+@RequiredArgsConstructor
+public class FacetasVeiculos {
+
+    private static final int TAMANHO_FAIXA_ANO = 5;
+    private static final int[] LIMITES_PRECO = {100, 200, 300, 500};
+
+    private final VeiculoRepository veiculoRepository;
+
+    private volatile Map<Celula, Long> celulas = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        Map<Celula, Long> novas = new HashMap<>();
+        for (Object[] linha : veiculoRepository.contarAgrupadoParaFacetas()) {
+            Celula celula = new Celula(
+                    (String) linha[0],
+                    (String) linha[1],
+                    faixaAno((Integer) linha[2]),
+                    faixaPreco((BigDecimal) linha[3]),
+                    Boolean.TRUE.equals(linha[4]));
+            novas.merge(celula, (Long) linha[5], Long::sum);
+        }
+        synchronized (this) {
+            celulas = Map.copyOf(novas);
+        }
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarVeiculo(VeiculoAlteradoEvent evento) {
+        synchronized (this) {
+            // Copia-e-troca: leitores sempre enxergam um mapa consistente
+            Map<Celula, Long> novas = new HashMap<>(celulas);
+            if (evento.anterior() != null) {
+                novas.computeIfPresent(Celula.de(evento.anterior()), (c, total) -> total > 1 ? total - 1 : null);
+            }
+            if (evento.atual() != null) {
+                novas.merge(Celula.de(evento.atual()), 1L, Long::sum);
+            }
+            celulas = Map.copyOf(novas);
+        }
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        carregar();
+    }
+
+    /**
+     * Histograma de cada faceta para os filtros informados (null = sem filtro).
+     */
+    public FacetasVeiculoDTO calcular(String categoria, String marca, String faixaAno,
+                                      String faixaPreco, Boolean disponivel) {
+        Map<String, Long> categorias = new TreeMap<>();
+        Map<String, Long> marcas = new TreeMap<>();
+        Map<String, Long> faixasAno = new TreeMap<>();
+        Map<String, Long> faixasPreco = new TreeMap<>();
+        long total = 0;
+
+        for (Map.Entry<Celula, Long> entrada : celulas.entrySet()) {
+            Celula c = entrada.getKey();
+            long quantidade = entrada.getValue();
+            if (disponivel != null && c.disponivel() != disponivel) {
+                continue;
+            }
+            boolean categoriaOk = aceita(categoria, c.categoria());
+            boolean marcaOk = aceita(marca, c.marca());
+            boolean anoOk = aceita(faixaAno, c.faixaAno());
+            boolean precoOk = aceita(faixaPreco, c.faixaPreco());
+
+            // Cada faceta aplica todos os filtros, menos o dela mesma
+            if (marcaOk && anoOk && precoOk) {
+                categorias.merge(c.categoria(), quantidade, Long::sum);
+            }
+            if (categoriaOk && anoOk && precoOk) {
+                marcas.merge(c.marca(), quantidade, Long::sum);
+            }
+            if (categoriaOk && marcaOk && precoOk) {
+                faixasAno.merge(c.faixaAno(), quantidade, Long::sum);
+            }
+            if (categoriaOk && marcaOk && anoOk) {
+                faixasPreco.merge(c.faixaPreco(), quantidade, Long::sum);
+            }
+            if (categoriaOk && marcaOk && anoOk && precoOk) {
+                total += quantidade;
+            }
+        }
+        return new FacetasVeiculoDTO(total, categorias, marcas, faixasAno, faixasPreco);
+    }
+
+    private static boolean aceita(String filtro, String valor) {
+        return filtro == null || filtro.isBlank() || filtro.equalsIgnoreCase(valor);
+    }
+
+    // ========== FAIXAS ==========
+
+    static String faixaAno(Integer ano) {
+        int inicio = Math.floorDiv(ano, TAMANHO_FAIXA_ANO) * TAMANHO_FAIXA_ANO;
+        return inicio + "-" + (inicio + TAMANHO_FAIXA_ANO - 1);
+    }
+
+    static String faixaPreco(BigDecimal valor) {
+        int inicio = 0;
+        for (int limite : LIMITES_PRECO) {
+            if (valor.compareTo(BigDecimal.valueOf(limite)) < 0) {
+                return inicio + "-" + (limite - 1);
+            }
+            inicio = limite;
+        }
+        return inicio + "+";
+    }
+
+    private record Celula(String categoria, String marca, String faixaAno, String faixaPreco, boolean disponivel) {
+        static Celula de(VeiculoDTO veiculo) {
+            return new Celula(
+                    veiculo.getCategoria(),
+                    veiculo.getMarca(),
+                    FacetasVeiculos.faixaAno(veiculo.getAno()),
+                    FacetasVeiculos.faixaPreco(veiculo.getValorDiaria()),
+                    Boolean.TRUE.equals(veiculo.getDisponivel()));
+        }
+    }
+}
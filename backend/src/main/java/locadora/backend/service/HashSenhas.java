@@ -0,0 +1,145 @@
+package locadora.backend.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import locadora.backend.exception.SobrecargaException;
+
+/**
+ * Hash e conferência de senhas (BCrypt) em um pool próprio, com número de threads e fila limitados.
+ *
+ * Uma rajada de logins/cadastros ocupa no máximo threads + fila workers do Tomcat esperando o
+ * resultado; o excedente é recusado na hora com SobrecargaException (429 com Retry-After), sem
+ * chegar a calcular o hash, e o restante da API continua atendendo normalmente.
+ */
+@Component
+public class HashSenhas {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long esperaMaximaMs;
+
+    private final LongAdder concluidos = new LongAdder();
+    private final LongAdder recusados = new LongAdder();
+    private final LongAdder nanosHash = new LongAdder();
+    private final AtomicLong maiorHashNanos = new AtomicLong();
+    private final LongAdder nanosFila = new LongAdder();
+
+    public HashSenhas(PasswordEncoder passwordEncoder,
+                      @Value("${senhas.hash.threads:0}") int threads,
+                      @Value("${senhas.hash.fila:32}") int fila,
+                      @Value("${senhas.hash.espera-maxima-ms:5000}") long esperaMaximaMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.esperaMaximaMs = esperaMaximaMs;
+        // Sem configuração: metade dos processadores, para o hash não disputar CPU com o resto da API
+        int tamanho = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, fila)),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "hash-senhas-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String codificar(String senha) {
+        return executar(() -> passwordEncoder.encode(senha));
+    }
+
+    public boolean conferir(String senha, String hash) {
+        return executar(() -> passwordEncoder.matches(senha, hash));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public Estatisticas estatisticas() {
+        long total = concluidos.sum();
+        return new Estatisticas(
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                executor.getQueue().size() + executor.getQueue().remainingCapacity(),
+                total,
+                recusados.sum(),
+                total == 0 ? 0.0 : nanosHash.sum() / 1e6 / total,
+                maiorHashNanos.get() / 1e6,
+                total == 0 ? 0.0 : nanosFila.sum() / 1e6 / total);
+    }
+
+    private <T> T executar(Callable<T> operacao) {
+        long enfileirado = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(() -> {
+                long inicio = System.nanoTime();
+                nanosFila.add(inicio - enfileirado);
+                try {
+                    return operacao.call();
+                } finally {
+                    long duracao = System.nanoTime() - inicio;
+                    nanosHash.add(duracao);
+                    maiorHashNanos.accumulateAndGet(duracao, Math::max);
+                    concluidos.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw sobrecarga();
+        }
+
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            throw sobrecarga();
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o hash da senha", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private SobrecargaException sobrecarga() {
+        recusados.increment();
+        return new SobrecargaException("Muitas autenticações simultâneas, tente novamente em instantes",
+                segundosParaEsvaziarFila());
+    }
+
+    // Estimativa pelo tempo médio de hash: fila atual dividida entre as threads, no mínimo 1 s
+    private long segundosParaEsvaziarFila() {
+        long total = concluidos.sum();
+        double mediaMs = total == 0 ? 100.0 : nanosHash.sum() / 1e6 / total;
+        double ms = (executor.getQueue().size() + executor.getActiveCount()) * mediaMs / executor.getMaximumPoolSize();
+        return Math.max(1, (long) Math.ceil(ms / 1000));
+    }
+
+    /**
+     * Ocupação do pool e latências (em ms) para monitoramento
+     */
+    public record Estatisticas(int threads, int ativas, int fila, int capacidadeFila, long concluidos,
+                               long recusados, double mediaHashMs, double maiorHashMs, double mediaEsperaFilaMs) {
+    }
+}
@@ -0,0 +1,309 @@
+package locadora.backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import locadora.backend.dto.ImportacaoResultadoDTO;
+import locadora.backend.dto.VeiculoCreateDTO;
+import locadora.backend.event.CatalogoAlteradoEvent;
+import locadora.backend.repository.VeiculoRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Importação em lote de veículos a partir de CSV ou NDJSON.
+ *
+ * O arquivo é lido linha a linha (sem carregar tudo em memória) e processado em
+ * blocos: cada bloco é validado, tem as placas verificadas com uma única consulta
+ * e é inserido com um batch JDBC, em uma transação própria. Se o banco recusar o
+ * batch, o bloco é gravado linha a linha e só as linhas recusadas viram erro.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportacaoVeiculosService {
+
+    private static final int MAXIMO_ERROS_DETALHADOS = 1000;
+    private static final List<String> COLUNAS_CSV =
+            List.of("modelo", "marca", "placa", "ano", "categoria", "valorDiaria", "descricao");
+
+    private static final String SQL_INSERT = """
+            INSERT INTO veiculos (modelo, marca, placa, ano, categoria, valor_diaria, disponivel, descricao, versao)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)
+            """;
+
+    private final VeiculoRepository veiculoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${importacao.veiculos.tamanho-bloco:1000}")
+    private int tamanhoBloco;
+
+    public ImportacaoResultadoDTO importarCsv(InputStream entrada) throws IOException {
+        return importar(entrada, true);
+    }
+
+    public ImportacaoResultadoDTO importarNdjson(InputStream entrada) throws IOException {
+        return importar(entrada, false);
+    }
+
+    private ImportacaoResultadoDTO importar(InputStream entrada, boolean csv) throws IOException {
+        ImportacaoResultadoDTO resultado = new ImportacaoResultadoDTO();
+        List<LinhaImportacao> bloco = new ArrayList<>(tamanhoBloco);
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            Map<String, Integer> colunas = null;
+            if (csv) {
+                String cabecalho = leitor.readLine();
+                if (cabecalho == null) {
+                    throw new RuntimeException("Arquivo CSV vazio");
+                }
+                colunas = lerCabecalho(cabecalho);
+            }
+
+            long numeroLinha = csv ? 1 : 0;
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                numeroLinha++;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                resultado.setTotalLinhas(resultado.getTotalLinhas() + 1);
+
+                VeiculoCreateDTO dto;
+                try {
+                    dto = csv ? converterCsv(linha, colunas) : objectMapper.readValue(linha, VeiculoCreateDTO.class);
+                } catch (IllegalArgumentException | JsonProcessingException e) {
+                    registrarErro(resultado, numeroLinha, null, "Linha mal formatada");
+                    continue;
+                }
+
+                String erroValidacao = validar(dto);
+                if (erroValidacao != null) {
+                    registrarErro(resultado, numeroLinha, dto.getPlaca(), erroValidacao);
+                    continue;
+                }
+
+                bloco.add(new LinhaImportacao(numeroLinha, dto));
+                if (bloco.size() >= tamanhoBloco) {
+                    gravarBloco(bloco, resultado);
+                    bloco.clear();
+                }
+            }
+            if (!bloco.isEmpty()) {
+                gravarBloco(bloco, resultado);
+            }
+        } finally {
+            // Blocos já gravados continuam valendo mesmo se a importação parar no meio
+            if (resultado.getImportados() > 0) {
+                eventPublisher.publishEvent(new CatalogoAlteradoEvent("importacao"));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Descarta placas repetidas (no próprio bloco ou já cadastradas) e insere o
+     * restante em um único batch. Se outra requisição cadastrar uma das placas
+     * entre a verificação e o insert, o bloco é reprocessado uma vez; se o banco
+     * recusar de novo, as linhas são gravadas uma a uma.
+     */
+    private void gravarBloco(List<LinhaImportacao> bloco, ImportacaoResultadoDTO resultado) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> inserirBloco(bloco, resultado));
+        } catch (DataIntegrityViolationException e) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> inserirBloco(bloco, resultado));
+            } catch (DataIntegrityViolationException novamente) {
+                gravarLinhaALinha(bloco, resultado);
+            }
+        }
+    }
+
+    /**
+     * Cada linha em uma transação própria: uma linha recusada pelo banco é
+     * registrada com o seu número sem desfazer as demais do bloco.
+     */
+    private void gravarLinhaALinha(List<LinhaImportacao> bloco, ImportacaoResultadoDTO resultado) {
+        for (LinhaImportacao item : bloco) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> inserirBloco(List.of(item), resultado));
+            } catch (DuplicateKeyException e) {
+                registrarErro(resultado, item.numero(), item.dto().getPlaca(), "Placa já cadastrada");
+            } catch (DataIntegrityViolationException e) {
+                registrarErro(resultado, item.numero(), item.dto().getPlaca(), "Linha recusada pelo banco de dados");
+            }
+        }
+    }
+
+    private void inserirBloco(List<LinhaImportacao> bloco, ImportacaoResultadoDTO resultado) {
+        Set<String> placasDoBloco = new HashSet<>();
+        for (LinhaImportacao item : bloco) {
+            placasDoBloco.add(item.dto().getPlaca());
+        }
+        Set<String> existentes = new HashSet<>(veiculoRepository.findPlacasExistentes(placasDoBloco));
+
+        List<LinhaImportacao> validas = new ArrayList<>(bloco.size());
+        List<LinhaImportacao> rejeitadas = new ArrayList<>();
+        Set<String> vistas = new HashSet<>();
+        for (LinhaImportacao item : bloco) {
+            String placa = item.dto().getPlaca();
+            if (existentes.contains(placa) || !vistas.add(placa)) {
+                rejeitadas.add(item);
+            } else {
+                validas.add(item);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(SQL_INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                VeiculoCreateDTO dto = validas.get(i).dto();
+                ps.setString(1, dto.getModelo());
+                ps.setString(2, dto.getMarca());
+                ps.setString(3, dto.getPlaca());
+                ps.setInt(4, dto.getAno());
+                ps.setString(5, dto.getCategoria());
+                ps.setBigDecimal(6, dto.getValorDiaria());
+                ps.setBoolean(7, true);
+                ps.setString(8, dto.getDescricao());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return validas.size();
+            }
+        });
+
+        // Só contabiliza depois que o batch passou (se falhar, a nova tentativa recomeça o bloco)
+        resultado.setImportados(resultado.getImportados() + validas.size());
+        for (LinhaImportacao item : rejeitadas) {
+            registrarErro(resultado, item.numero(), item.dto().getPlaca(), "Placa já cadastrada");
+        }
+    }
+
+    // ========== LEITURA E VALIDAÇÃO ==========
+
+    private Map<String, Integer> lerCabecalho(String cabecalho) {
+        List<String> nomes = separarCsv(cabecalho);
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < nomes.size(); i++) {
+            colunas.put(nomes.get(i).trim(), i);
+        }
+        for (String obrigatoria : COLUNAS_CSV.subList(0, 6)) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new RuntimeException("Coluna obrigatória ausente no CSV: " + obrigatoria);
+            }
+        }
+        return colunas;
+    }
+
+    private VeiculoCreateDTO converterCsv(String linha, Map<String, Integer> colunas) {
+        List<String> valores = separarCsv(linha);
+        VeiculoCreateDTO dto = new VeiculoCreateDTO();
+        dto.setModelo(coluna(valores, colunas, "modelo"));
+        dto.setMarca(coluna(valores, colunas, "marca"));
+        dto.setPlaca(coluna(valores, colunas, "placa"));
+        String ano = coluna(valores, colunas, "ano");
+        dto.setAno(ano != null ? Integer.valueOf(ano) : null);
+        dto.setCategoria(coluna(valores, colunas, "categoria"));
+        String valorDiaria = coluna(valores, colunas, "valorDiaria");
+        dto.setValorDiaria(valorDiaria != null ? new BigDecimal(valorDiaria) : null);
+        dto.setDescricao(coluna(valores, colunas, "descricao"));
+        return dto;
+    }
+
+    private String coluna(List<String> valores, Map<String, Integer> colunas, String nome) {
+        Integer indice = colunas.get(nome);
+        if (indice == null || indice >= valores.size()) {
+            return null;
+        }
+        String valor = valores.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    /**
+     * Separa uma linha CSV por vírgulas, respeitando campos entre aspas ("" escapa aspas).
+     */
+    private List<String> separarCsv(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        if (entreAspas) {
+            throw new IllegalArgumentException("Aspas não fechadas");
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    private String validar(VeiculoCreateDTO dto) {
+        Set<ConstraintViolation<VeiculoCreateDTO>> violacoes = validator.validate(dto);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+        return violacoes.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .reduce((a, b) -> a + "; " + b)
+                .orElse(null);
+    }
+
+    private void registrarErro(ImportacaoResultadoDTO resultado, long linha, String placa, String mensagem) {
+        resultado.setRejeitados(resultado.getRejeitados() + 1);
+        if (resultado.getErros().size() < MAXIMO_ERROS_DETALHADOS) {
+            resultado.getErros().add(new ImportacaoResultadoDTO.ErroLinha(linha, placa, mensagem));
+        } else {
+            resultado.setErrosOmitidos(resultado.getErrosOmitidos() + 1);
+        }
+    }
+
+    private record LinhaImportacao(long numero, VeiculoCreateDTO dto) {
+    }
+}
@@ -0,0 +1,349 @@
+package locadora.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import locadora.backend.dto.VeiculoDTO;
+import locadora.backend.event.CatalogoAlteradoEvent;
+import locadora.backend.event.VeiculoAlteradoEvent;
+import locadora.backend.repository.VeiculoRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Índice invertido em memória sobre marca, modelo, categoria e descrição dos veículos.
+ *
+ * Os termos são normalizados (minúsculas, sem acentos) e a busca aceita
+ * correspondência exata, por prefixo e com erros de digitação (distância de edição).
+ * Os candidatos aproximados saem de um índice de deleções (cada termo registrado também
+ * sem 1 ou 2 letras): a consulta gera as próprias deleções e só os termos que compartilham
+ * alguma delas passam pelo cálculo de distância, em vez do vocabulário inteiro.
+ * O índice é carregado uma vez na inicialização e mantido pelos eventos de
+ * alteração de veículo, sem consultar a tabela veiculos a cada pesquisa. Recargas
+ * completas montam um índice novo e o publicam numa única troca de referência,
+ * então uma pesquisa concorrente nunca vê o índice pela metade.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndicePesquisaVeiculos {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    // Pontuação por tipo de correspondência
+    private static final int PESO_EXATO = 3;
+    private static final int PESO_PREFIXO = 2;
+    private static final int PESO_APROXIMADO = 1;
+
+    private final VeiculoRepository veiculoRepository;
+
+    // Lido sem trava pelas pesquisas; a recarga monta um índice novo e troca a referência de uma vez
+    private volatile Indice indice = new Indice();
+    // Alterações incrementais recebidas durante uma recarga, reaplicadas no índice novo antes da troca
+    private List<VeiculoAlteradoEvent> alteracoesDuranteRecarga;
+    private final Object recarga = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        synchronized (recarga) {
+            synchronized (this) {
+                alteracoesDuranteRecarga = new ArrayList<>();
+            }
+            Indice novo = new Indice();
+            veiculoRepository.listarProjetado().forEach(novo::indexar);
+            synchronized (this) {
+                // A leitura pode ou não ter visto cada alteração; reaplicar o estado atual do veículo vale nos dois casos
+                alteracoesDuranteRecarga.forEach(novo::aplicar);
+                alteracoesDuranteRecarga = null;
+                indice = novo;
+            }
+        }
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarVeiculo(VeiculoAlteradoEvent evento) {
+        synchronized (this) {
+            indice.aplicar(evento);
+            if (alteracoesDuranteRecarga != null) {
+                alteracoesDuranteRecarga.add(evento);
+            }
+        }
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        carregar();
+    }
+
+    /**
+     * Pesquisa veículos pelo texto livre, com filtro opcional de categoria.
+     * Todos os termos da consulta precisam casar (exato, prefixo ou aproximado);
+     * o resultado vem ordenado por relevância e depois por id, a partir da posição
+     * deslocamento e com até limite itens.
+     */
+    public List<VeiculoDTO> pesquisar(String texto, String categoria, boolean apenasDisponiveis,
+            int deslocamento, int limite) {
+        Indice atual = indice;
+        List<String> consulta = tokenizar(texto);
+        String categoriaNormalizada = categoria != null && !categoria.isBlank() ? normalizar(categoria) : null;
+
+        if (consulta.isEmpty()) {
+            // Sem texto todos empatam em relevância: percorre os ids já ordenados só até a página pedida
+            Collection<Long> candidatos = categoriaNormalizada != null
+                    ? atual.idsPorCategoria.getOrDefault(categoriaNormalizada, Collections.emptyNavigableSet())
+                    : atual.documentos.keySet();
+            return paginar(atual, candidatos.stream(), categoriaNormalizada, apenasDisponiveis, deslocamento, limite);
+        }
+
+        Map<Long, Integer> pontuacao = null;
+        for (String token : new LinkedHashSet<>(consulta)) {
+            Map<Long, Integer> doToken = atual.pontuarToken(token);
+            if (pontuacao == null) {
+                pontuacao = doToken;
+            } else {
+                pontuacao.keySet().retainAll(doToken.keySet());
+                pontuacao.replaceAll((id, soma) -> soma + doToken.get(id));
+            }
+            if (pontuacao.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        final Map<Long, Integer> pontos = pontuacao;
+        return paginar(atual, pontos.keySet().stream()
+                        .sorted(Comparator.comparing((Long id) -> -pontos.get(id)).thenComparing(id -> id)),
+                categoriaNormalizada, apenasDisponiveis, deslocamento, limite);
+    }
+
+    private static List<VeiculoDTO> paginar(Indice atual, Stream<Long> ids, String categoriaNormalizada,
+            boolean apenasDisponiveis, int deslocamento, int limite) {
+        List<VeiculoDTO> resultado = new ArrayList<>();
+        ids.map(atual.documentos::get)
+                .filter(v -> v != null)
+                .filter(v -> !apenasDisponiveis || Boolean.TRUE.equals(v.getDisponivel()))
+                .filter(v -> categoriaNormalizada == null || categoriaNormalizada.equals(normalizar(v.getCategoria())))
+                .skip(deslocamento)
+                .limit(limite)
+                .forEach(resultado::add);
+        return resultado;
+    }
+
+    // ========== MANUTENÇÃO DO ÍNDICE ==========
+
+    private static final class Indice {
+
+        // termo -> ids dos veículos que contêm o termo (ordenado para busca por prefixo)
+        final ConcurrentSkipListMap<String, Set<Long>> termos = new ConcurrentSkipListMap<>();
+        // Ordenados por id: a pesquisa sem texto pagina direto sobre eles
+        final ConcurrentSkipListMap<Long, VeiculoDTO> documentos = new ConcurrentSkipListMap<>();
+        final Map<Long, Set<String>> termosPorDocumento = new ConcurrentHashMap<>();
+        final Map<String, NavigableSet<Long>> idsPorCategoria = new ConcurrentHashMap<>();
+        // termo com até 2 letras removidas -> termos que geram essa deleção
+        final Map<String, Set<String>> termosPorDelecao = new ConcurrentHashMap<>();
+
+        void aplicar(VeiculoAlteradoEvent evento) {
+            remover(evento.veiculoId());
+            if (evento.atual() != null) {
+                indexar(evento.atual());
+            }
+        }
+
+        void indexar(VeiculoDTO veiculo) {
+            Set<String> termosDoVeiculo = new HashSet<>();
+            termosDoVeiculo.addAll(tokenizar(veiculo.getMarca()));
+            termosDoVeiculo.addAll(tokenizar(veiculo.getModelo()));
+            termosDoVeiculo.addAll(tokenizar(veiculo.getCategoria()));
+            termosDoVeiculo.addAll(tokenizar(veiculo.getDescricao()));
+
+            for (String termo : termosDoVeiculo) {
+                if (!termos.containsKey(termo)) {
+                    for (String delecao : delecoes(termo, delecoesIndexadas(termo))) {
+                        termosPorDelecao.computeIfAbsent(delecao, d -> ConcurrentHashMap.newKeySet()).add(termo);
+                    }
+                }
+                termos.computeIfAbsent(termo, t -> ConcurrentHashMap.newKeySet()).add(veiculo.getId());
+            }
+            termosPorDocumento.put(veiculo.getId(), termosDoVeiculo);
+            documentos.put(veiculo.getId(), veiculo);
+            if (veiculo.getCategoria() != null) {
+                idsPorCategoria.computeIfAbsent(normalizar(veiculo.getCategoria()), c -> new ConcurrentSkipListSet<>())
+                        .add(veiculo.getId());
+            }
+        }
+
+        void remover(Long id) {
+            VeiculoDTO anterior = documentos.remove(id);
+            Set<String> termosDoVeiculo = termosPorDocumento.remove(id);
+            if (termosDoVeiculo != null) {
+                for (String termo : termosDoVeiculo) {
+                    termos.computeIfPresent(termo, (t, ids) -> {
+                        ids.remove(id);
+                        return ids.isEmpty() ? null : ids;
+                    });
+                    if (!termos.containsKey(termo)) {
+                        for (String delecao : delecoes(termo, delecoesIndexadas(termo))) {
+                            termosPorDelecao.computeIfPresent(delecao, (d, termosDaDelecao) -> {
+                                termosDaDelecao.remove(termo);
+                                return termosDaDelecao.isEmpty() ? null : termosDaDelecao;
+                            });
+                        }
+                    }
+                }
+            }
+            if (anterior != null && anterior.getCategoria() != null) {
+                idsPorCategoria.computeIfPresent(normalizar(anterior.getCategoria()), (c, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        // ========== CORRESPONDÊNCIA DE TERMOS ==========
+
+        Map<Long, Integer> pontuarToken(String token) {
+            Map<Long, Integer> pontuacao = new HashMap<>();
+
+            // Exato e prefixo: faixa de termos que começam com o token no mapa ordenado
+            for (Map.Entry<String, Set<Long>> entrada : termos.subMap(token, token + Character.MAX_VALUE).entrySet()) {
+                int peso = entrada.getKey().equals(token) ? PESO_EXATO : PESO_PREFIXO;
+                for (Long id : entrada.getValue()) {
+                    pontuacao.merge(id, peso, Math::max);
+                }
+            }
+
+            // Aproximado: tolera 1 erro em termos médios e 2 em termos longos
+            int distanciaMaxima = distanciaMaxima(token);
+            if (distanciaMaxima > 0) {
+                // Um termo a distância <= k tem alguma deleção (<= k letras) em comum com o token
+                Set<String> candidatos = new HashSet<>();
+                for (String delecao : delecoes(token, distanciaMaxima)) {
+                    Set<String> termosDaDelecao = termosPorDelecao.get(delecao);
+                    if (termosDaDelecao != null) {
+                        candidatos.addAll(termosDaDelecao);
+                    }
+                }
+                for (String termo : candidatos) {
+                    Set<Long> ids = termos.get(termo);
+                    if (ids == null
+                            || Math.abs(termo.length() - token.length()) > distanciaMaxima
+                            || distanciaEdicao(token, termo, distanciaMaxima) > distanciaMaxima) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        pontuacao.merge(id, PESO_APROXIMADO, Math::max);
+                    }
+                }
+            }
+            return pontuacao;
+        }
+    }
+
+    private static int distanciaMaxima(String token) {
+        return token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+    }
+
+    /**
+     * Deleções registradas para um termo: o bastante para ser encontrado por qualquer token
+     * que o tolere (tokens de 8+ letras aceitam termos de 6+ a distância 2; de 4+, termos de 3+ a distância 1)
+     */
+    private static int delecoesIndexadas(String termo) {
+        return termo.length() >= 6 ? 2 : termo.length() >= 3 ? 1 : 0;
+    }
+
+    /**
+     * O próprio texto e todas as variações com até maximo letras removidas
+     */
+    private static Set<String> delecoes(String texto, int maximo) {
+        Set<String> resultado = new HashSet<>();
+        resultado.add(texto);
+        Set<String> nivel = Set.of(texto);
+        for (int n = 0; n < maximo; n++) {
+            Set<String> proximo = new HashSet<>();
+            for (String atual : nivel) {
+                if (atual.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < atual.length(); i++) {
+                    proximo.add(atual.substring(0, i) + atual.substring(i + 1));
+                }
+            }
+            resultado.addAll(proximo);
+            nivel = proximo;
+        }
+        return resultado;
+    }
+
+    /**
+     * Distância de edição (Levenshtein com transposição de letras vizinhas),
+     * com parada antecipada quando passa do limite.
+     */
+    private static int distanciaEdicao(String a, String b, int limite) {
+        int[] antesDoAnterior = new int[b.length() + 1];
+        int[] anterior = new int[b.length() + 1];
+        int[] atual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            atual[0] = i;
+            int menorDaLinha = atual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                atual[j] = Math.min(Math.min(atual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + custo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    atual[j] = Math.min(atual[j], antesDoAnterior[j - 2] + 1);
+                }
+                menorDaLinha = Math.min(menorDaLinha, atual[j]);
+            }
+            if (menorDaLinha > limite) {
+                return limite + 1;
+            }
+            int[] troca = antesDoAnterior;
+            antesDoAnterior = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return anterior[b.length()];
+    }
+
+    static String normalizar(String texto) {
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT).trim();
+    }
+
+    static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARADORES.split(normalizar(texto))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
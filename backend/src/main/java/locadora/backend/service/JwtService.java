@@ -4,48 +4,115 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import locadora.backend.cache.CacheLocal;
+import lombok.RequiredArgsConstructor;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    private final RevogacaoTokens revogacoes;
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.tamanho-maximo:10000}")
+    private int tamanhoCache;
+
+    // Chave e parser são imutáveis: montados uma vez e compartilhados entre as requisições
+    private Key signingKey;
+    private JwtParser parser;
+
+    // SHA-256 do token -> claims já verificadas; cada entrada expira junto com o token
+    private CacheLocal<String, TokenVerificado> tokensVerificados;
+
+    /**
+     * Claims usadas na autenticação de um token com assinatura e validade conferidas
+     */
+    public record TokenVerificado(String email, Long userId, String role, Instant emitidoEm, Instant expiraEm) {
+    }
+
+    @PostConstruct
+    void inicializar() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        tokensVerificados = new CacheLocal<>("jwt.tokensVerificados", tamanhoCache, Duration.ofMillis(expiration));
     }
 
     public String generateToken(String email, Long userId, Boolean isFuncionario) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("role", isFuncionario ? "ROLE_FUNCIONARIO" : "ROLE_CLIENTE");
-        return createToken(claims, email);
+        return createToken(claims, email, userId);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, Long userId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
+        // Emitido logo após uma revogação do usuário: o iat (em segundos) não pode cair antes dela
+        Date issuedAt = new Date(Math.max(now.getTime(), revogacoes.validoDesdeMs(userId)));
 
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(now)
+                .setIssuedAt(issuedAt)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifica assinatura e validade uma única vez e devolve as claims usadas na autenticação.
+     * Tokens já verificados vêm do cache (sem criptografia) até expirarem; a revogação
+     * é conferida em toda chamada, inclusive nos acertos do cache.
+     */
+    public Optional<TokenVerificado> verificar(String token) {
+        String chave = resumir(token);
+        TokenVerificado verificado = tokensVerificados.obterSePresente(chave);
+        if (verificado != null) {
+            return naoRevogado(verificado);
+        }
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (claims.getSubject() == null || claims.getIssuedAt() == null || claims.getExpiration() == null) {
+            return Optional.empty();
+        }
+        verificado = new TokenVerificado(claims.getSubject(), claims.get("userId", Long.class),
+                claims.get("role", String.class), claims.getIssuedAt().toInstant(), claims.getExpiration().toInstant());
+        tokensVerificados.gravar(chave, verificado, Duration.between(Instant.now(), verificado.expiraEm()));
+        return naoRevogado(verificado);
+    }
+
+    public CacheLocal.Estatisticas estatisticasCache() {
+        return tokensVerificados.estatisticas();
+    }
+
     public String extractEmail(String token) {
         return extractAllClaims(token).getSubject();
     }
@@ -59,22 +126,27 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token) {
-        try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
+        return verificar(token).isPresent();
+    }
+
+    // Tokens expirados são recusados pelo próprio parser (ExpiredJwtException)
+    private Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    private Optional<TokenVerificado> naoRevogado(TokenVerificado verificado) {
+        if (revogacoes.revogado(verificado.userId(), verificado.emitidoEm().getEpochSecond())) {
+            return Optional.empty();
+        }
+        return Optional.of(verificado);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String resumir(String token) {
+        try {
+            byte[] resumo = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(resumo);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -1,19 +1,40 @@
 package locadora.backend.service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import locadora.backend.dto.LocacaoCreateDTO;
 import locadora.backend.dto.LocacaoDTO;
+import locadora.backend.dto.LocacaoFiltroDTO;
+import locadora.backend.dto.PaginaDTO;
+import locadora.backend.dto.TotaisLocacaoDTO;
+import locadora.backend.dto.UsuarioSimplificadoDTO;
+import locadora.backend.dto.VeiculoDTO;
+import locadora.backend.event.LocacaoAlteradaEvent;
+import locadora.backend.exception.ConflitoException;
+import locadora.backend.model.EstatisticasLocacaoUsuario;
 import locadora.backend.model.Locacao;
 import locadora.backend.model.StatusLocacao;
-import locadora.backend.model.Usuario;
 import locadora.backend.model.Veiculo;
+import locadora.backend.repository.LocacaoArquivadaRepository;
 import locadora.backend.repository.LocacaoRepository;
 import locadora.backend.repository.UsuarioRepository;
 import locadora.backend.repository.VeiculoRepository;
@@ -22,51 +43,212 @@ import lombok.RequiredArgsConstructor;
 @Service
 @RequiredArgsConstructor
 public class LocacaoService {
+    private static final int MAXIMO_TENTATIVAS_LOCACAO = 3;
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+
+    // Ordem do histórico: retirada mais recente primeiro, desempate pelo id
+    private static final Comparator<LocacaoDTO> ORDEM_HISTORICO = Comparator
+            .comparing(LocacaoDTO::getDataRetirada).thenComparing(LocacaoDTO::getId).reversed();
+
     private final LocacaoRepository locacaoRepository;
+    private final LocacaoArquivadaRepository locacaoArquivadaRepository;
+    private final ArquivamentoLocacoes arquivamentoLocacoes;
     private final VeiculoRepository veiculoRepository;
     private final UsuarioRepository usuarioRepository;
+    private final DisponibilidadeVeiculos disponibilidadeVeiculos;
+    private final EstatisticasLocacoes estatisticasLocacoes;
+    private final ReceitaLocacoes receitaLocacoes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional(readOnly = true)
     public List<LocacaoDTO> listarTodas() {
-        return locacaoRepository.findAll().stream()
-                .map(LocacaoDTO::new)
-                .collect(Collectors.toList());
+        List<LocacaoDTO> locacoes = locacaoRepository.listarProjetado();
+        if (arquivamentoLocacoes.abrangeArquivo(null)) {
+            locacoes = new ArrayList<>(locacoes);
+            locacoes.addAll(locacaoArquivadaRepository.listarProjetado());
+        }
+        return locacoes;
     }
 
     @Transactional(readOnly = true)
     public List<LocacaoDTO> listarPorUsuario(Long usuarioId) {
-        return locacaoRepository.findByUsuarioIdOrderByDataRetiradaDesc(usuarioId).stream()
-                .map(LocacaoDTO::new)
-                .collect(Collectors.toList());
+        List<LocacaoDTO> locacoes = locacaoRepository.listarProjetadoPorUsuario(usuarioId);
+        if (arquivamentoLocacoes.abrangeArquivo(null)) {
+            locacoes = intercalar(locacoes, locacaoArquivadaRepository.listarProjetadoPorUsuario(usuarioId),
+                    Integer.MAX_VALUE);
+        }
+        return locacoes;
+    }
+
+    /**
+     * Página do histórico do usuário com status e período de retirada filtrados no banco.
+     * O cursor guarda a data de retirada e o id da última locação entregue, então
+     * o custo de cada página não depende do tamanho do histórico.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<LocacaoDTO> listarPaginaPorUsuario(Long usuarioId, LocacaoFiltroDTO filtro) {
+        int tamanho = filtro.getTamanho() != null ? filtro.getTamanho() : 20;
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new RuntimeException("Tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        validarPeriodo(filtro.getRetiradaDe(), filtro.getRetiradaAte());
+
+        String[] cursor = decodificarCursor(filtro.getCursor());
+        LocalDate ultimaRetirada = cursor != null ? LocalDate.parse(cursor[0]) : null;
+        Long ultimoId = cursor != null ? Long.valueOf(cursor[1]) : null;
+        // Busca um item a mais para saber se existe próxima página
+        List<LocacaoDTO> locacoes = locacaoRepository.buscarPaginaPorUsuario(
+                usuarioId, filtro.getStatus(), filtro.getRetiradaDe(), filtro.getRetiradaAte(),
+                ultimaRetirada, ultimoId, Limit.of(tamanho + 1));
+
+        // O arquivo só tem locações encerradas e só entra se o período alcançar as datas arquivadas
+        // e a página não tiver sido completada com locações mais recentes que todas as arquivadas
+        boolean paginaCompletaAntesDoArquivo = locacoes.size() > tamanho
+                && !arquivamentoLocacoes.abrangeArquivo(locacoes.get(tamanho).getDataRetirada());
+        if (filtro.getStatus() != StatusLocacao.ATIVA && !paginaCompletaAntesDoArquivo
+                && arquivamentoLocacoes.abrangeArquivo(filtro.getRetiradaDe())) {
+            locacoes = intercalar(locacoes, locacaoArquivadaRepository.buscarPaginaPorUsuario(
+                    usuarioId, filtro.getStatus(), filtro.getRetiradaDe(), filtro.getRetiradaAte(),
+                    ultimaRetirada, ultimoId, Limit.of(tamanho + 1)), tamanho + 1);
+        }
+
+        boolean temMais = locacoes.size() > tamanho;
+        List<LocacaoDTO> itens = temMais ? locacoes.subList(0, tamanho) : locacoes;
+
+        String proximoCursor = null;
+        if (temMais) {
+            LocacaoDTO ultima = itens.get(itens.size() - 1);
+            proximoCursor = codificarCursor(ultima.getDataRetirada(), ultima.getId());
+        }
+        return new PaginaDTO<>(itens, proximoCursor, temMais);
+    }
+
+    /**
+     * Quantidade e valor total por status (usuarioId nulo = todas as locações).
+     * Sem filtros, os totais de um usuário vêm dos contadores mantidos em
+     * EstatisticasLocacoes; com filtros, são agregados no banco.
+     * Todos os status aparecem no resultado, com zero quando não há locações.
+     */
+    @Transactional(readOnly = true)
+    public Map<StatusLocacao, TotaisLocacaoDTO> totalizarPorStatus(Long usuarioId, LocalDate retiradaDe,
+                                                                   LocalDate retiradaAte, String categoria) {
+        validarPeriodo(retiradaDe, retiradaAte);
+        Map<StatusLocacao, TotaisLocacaoDTO> totais = new EnumMap<>(StatusLocacao.class);
+        if (usuarioId != null && retiradaDe == null && retiradaAte == null && vazioComoNulo(categoria) == null) {
+            EstatisticasLocacaoUsuario contadores = estatisticasLocacoes.obter(usuarioId);
+            totais.put(StatusLocacao.ATIVA, new TotaisLocacaoDTO(StatusLocacao.ATIVA,
+                    contadores.getLocacoesAtivas(), contadores.getValorAtivas()));
+            totais.put(StatusLocacao.FINALIZADA, new TotaisLocacaoDTO(StatusLocacao.FINALIZADA,
+                    contadores.getLocacoesFinalizadas(), contadores.getValorFinalizadas()));
+            totais.put(StatusLocacao.CANCELADA, new TotaisLocacaoDTO(StatusLocacao.CANCELADA,
+                    contadores.getLocacoesCanceladas(), contadores.getValorCanceladas()));
+            return totais;
+        }
+        for (StatusLocacao status : StatusLocacao.values()) {
+            totais.put(status, new TotaisLocacaoDTO(status, 0, BigDecimal.ZERO));
+        }
+        locacaoRepository.totalizarPorStatus(usuarioId, retiradaDe, retiradaAte, vazioComoNulo(categoria))
+                .forEach(t -> totais.put(t.getStatus(), t));
+        if (arquivamentoLocacoes.abrangeArquivo(retiradaDe)) {
+            locacaoArquivadaRepository.totalizarPorStatus(usuarioId, retiradaDe, retiradaAte, vazioComoNulo(categoria))
+                    .forEach(t -> totais.merge(t.getStatus(), t, LocacaoService::somar));
+        }
+        return totais;
+    }
+
+    /**
+     * Quantidade e valor total por categoria de veículo e status, agregados no banco
+     */
+    @Transactional(readOnly = true)
+    public List<TotaisLocacaoDTO> totalizarPorCategoria(Long usuarioId, LocalDate retiradaDe,
+                                                        LocalDate retiradaAte, String categoria) {
+        validarPeriodo(retiradaDe, retiradaAte);
+        List<TotaisLocacaoDTO> totais = locacaoRepository.totalizarPorCategoriaEStatus(
+                usuarioId, retiradaDe, retiradaAte, vazioComoNulo(categoria));
+        if (!arquivamentoLocacoes.abrangeArquivo(retiradaDe)) {
+            return totais;
+        }
+        Map<String, TotaisLocacaoDTO> porChave = new LinkedHashMap<>();
+        totais.forEach(t -> porChave.put(t.getCategoria() + ":" + t.getStatus(), t));
+        locacaoArquivadaRepository.totalizarPorCategoriaEStatus(usuarioId, retiradaDe, retiradaAte, vazioComoNulo(categoria))
+                .forEach(t -> porChave.merge(t.getCategoria() + ":" + t.getStatus(), t, LocacaoService::somar));
+        List<TotaisLocacaoDTO> combinados = new ArrayList<>(porChave.values());
+        combinados.sort(Comparator.comparing(TotaisLocacaoDTO::getCategoria).thenComparing(TotaisLocacaoDTO::getStatus));
+        return combinados;
+    }
+
+    /**
+     * Data de retirada mais recente do usuário (null se ele não tem locações)
+     */
+    @Transactional(readOnly = true)
+    public LocalDate obterUltimaLocacao(Long usuarioId) {
+        return estatisticasLocacoes.obter(usuarioId).getUltimaLocacao();
+    }
+
+    @Transactional(readOnly = true)
+    public boolean possuiLocacoesAtivas(Long usuarioId) {
+        return locacaoRepository.existsByUsuarioIdAndStatus(usuarioId, StatusLocacao.ATIVA);
     }
 
     @Transactional(readOnly = true)
     public LocacaoDTO buscarPorId(Long id) {
-        Locacao locacao = locacaoRepository.findById(id)
+        return locacaoRepository.buscarProjetadoPorId(id)
+                .or(() -> locacaoArquivadaRepository.buscarProjetadoPorId(id))
                 .orElseThrow(() -> new RuntimeException("Locação não encontrada"));
-        return new LocacaoDTO(locacao);
     }
 
-    @Transactional
-    public LocacaoDTO criar(LocacaoCreateDTO dto, String emailUsuario) {
-        // Buscar usuário
-        Usuario usuario = usuarioRepository.findByEmail(emailUsuario)
+    /**
+     * Cria a locação reservando o veículo de forma atômica.
+     *
+     * Cada tentativa roda em uma transação própria: o veículo é lido com incremento
+     * forçado de versão, então, se outra locação do mesmo veículo for confirmada no
+     * meio do caminho, o commit falha e a tentativa é repetida (no máximo
+     * MAXIMO_TENTATIVAS_LOCACAO vezes) já enxergando a locação concorrente.
+     *
+     * O usuário vem do token (id do principal autenticado): a locação referencia o usuário
+     * sem carregar a entidade, e a resposta usa apenas a projeção id/nome/email/cpf.
+     */
+    public LocacaoDTO criar(LocacaoCreateDTO dto, Long usuarioId) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transactionTemplate.execute(status -> criarNaTransacao(dto, usuarioId));
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (tentativa >= MAXIMO_TENTATIVAS_LOCACAO) {
+                    throw new ConflitoException("Veículo sendo reservado por outra locação, tente novamente");
+                }
+                aguardarNovaTentativa(tentativa);
+            }
+        }
+    }
+
+    private LocacaoDTO criarNaTransacao(LocacaoCreateDTO dto, Long usuarioId) {
+        // Dados do usuário para a resposta (sem endereço); também confirma que o usuário existe
+        UsuarioSimplificadoDTO usuario = usuarioRepository.buscarSimplificadoPorId(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
-        // Buscar veículo
-        Veiculo veiculo = veiculoRepository.findById(dto.getVeiculoId())
+        // Buscar veículo (a versão é incrementada no commit)
+        Veiculo veiculo = veiculoRepository.buscarParaLocacao(dto.getVeiculoId())
                 .orElseThrow(() -> new RuntimeException("Veículo não encontrado"));
 
-        // Verificar disponibilidade
-        if (!veiculo.getDisponivel()) {
-            throw new RuntimeException("Veículo não disponível");
-        }
-
         // Validar datas
         if (dto.getDataDevolucao().isBefore(dto.getDataRetirada())) {
             throw new RuntimeException("Data de devolução deve ser posterior à data de retirada");
         }
 
+        // Verificar disponibilidade: fora de operação (marcado pela equipe) ou com locação ativa
+        // no período. O índice em memória recusa rápido; a consulta no banco também enxerga
+        // locações confirmadas por outras instâncias da aplicação
+        if (!veiculo.getDisponivel()) {
+            throw new RuntimeException("Veículo não disponível");
+        }
+        LocalDate fimPeriodo = dto.getDataDevolucao().isAfter(dto.getDataRetirada())
+                ? dto.getDataDevolucao() : dto.getDataRetirada().plusDays(1);
+        if (!disponibilidadeVeiculos.estaLivre(veiculo.getId(), dto.getDataRetirada(), dto.getDataDevolucao())
+                || locacaoRepository.existeSobreposicao(veiculo.getId(), dto.getDataRetirada(), fimPeriodo)) {
+            throw new ConflitoException("Veículo já reservado no período solicitado");
+        }
+
         // Calcular valor total
         long dias = ChronoUnit.DAYS.between(dto.getDataRetirada(), dto.getDataDevolucao());
         if (dias == 0) dias = 1; // Mínimo 1 dia
@@ -76,57 +258,159 @@ public class LocacaoService {
         Locacao locacao = new Locacao();
         locacao.setDataRetirada(dto.getDataRetirada());
         locacao.setDataDevolucao(dto.getDataDevolucao());
-        locacao.setUsuario(usuario);
+        locacao.setUsuario(usuarioRepository.getReferenceById(usuarioId));
         locacao.setVeiculo(veiculo);
+        locacao.setCategoria(veiculo.getCategoria());
         locacao.setObservacoes(dto.getObservacoes());
         locacao.setValorTotal(valorTotal);
         locacao.setStatus(StatusLocacao.ATIVA);
 
-        // Marcar veículo como indisponível
-        veiculo.setDisponivel(false);
-        veiculoRepository.save(veiculo);
-
         locacao = locacaoRepository.save(locacao);
-        return new LocacaoDTO(locacao);
+
+        // Registrar o período no índice; se a transação for revertida, o registro é desfeito
+        if (!disponibilidadeVeiculos.reservar(veiculo.getId(), locacao.getId(),
+                locacao.getDataRetirada(), locacao.getDataDevolucao())) {
+            throw new ConflitoException("Veículo já reservado no período solicitado");
+        }
+
+        estatisticasLocacoes.registrarCriacao(locacao);
+        receitaLocacoes.registrarCriacao(locacao);
+        eventPublisher.publishEvent(new LocacaoAlteradaEvent(locacao.getId(), veiculo.getId(),
+                locacao.getDataRetirada(), locacao.getDataDevolucao(), locacao.getStatus()));
+
+        return new LocacaoDTO(locacao, usuario);
     }
 
     @Transactional
     public LocacaoDTO finalizar(Long id) {
-        Locacao locacao = locacaoRepository.findById(id)
+        return encerrar(id, StatusLocacao.FINALIZADA, "Apenas locações ativas podem ser finalizadas");
+    }
+
+    @Transactional
+    public LocacaoDTO cancelar(Long id) {
+        return encerrar(id, StatusLocacao.CANCELADA, "Apenas locações ativas podem ser canceladas");
+    }
+
+    /**
+     * Sai de ATIVA por UPDATE condicional: transições concorrentes da mesma locação (duas abas,
+     * finalizar e cancelar juntos) não passam ambas pela conferência do status, então contadores,
+     * receita e índice de disponibilidade são atualizados uma única vez.
+     */
+    private LocacaoDTO encerrar(Long id, StatusLocacao novo, String mensagemNaoAtiva) {
+        Locacao locacao = locacaoRepository.buscarComAssociacoes(id)
                 .orElseThrow(() -> new RuntimeException("Locação não encontrada"));
 
-        if (locacao.getStatus() != StatusLocacao.ATIVA) {
-            throw new RuntimeException("Apenas locações ativas podem ser finalizadas");
+        if (locacao.getStatus() != StatusLocacao.ATIVA || locacaoRepository.encerrarSeAtiva(id, novo) == 0) {
+            throw new RuntimeException(mensagemNaoAtiva);
         }
 
-        locacao.setStatus(StatusLocacao.FINALIZADA);
-        
-        // Liberar veículo
-        Veiculo veiculo = locacao.getVeiculo();
-        veiculo.setDisponivel(true);
-        veiculoRepository.save(veiculo);
-
-        locacao = locacaoRepository.save(locacao);
+        locacao.setStatus(novo);
+        liberarPeriodo(locacao);
+        estatisticasLocacoes.registrarEncerramento(locacao);
+        receitaLocacoes.registrarEncerramento(locacao);
         return new LocacaoDTO(locacao);
     }
 
-    @Transactional
-    public LocacaoDTO cancelar(Long id) {
-        Locacao locacao = locacaoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Locação não encontrada"));
+    /**
+     * Verifica se o veículo pode ser locado no período (sem acessar a tabela locacoes)
+     */
+    @Transactional(readOnly = true)
+    public boolean verificarDisponibilidade(Long veiculoId, LocalDate dataRetirada, LocalDate dataDevolucao) {
+        if (dataDevolucao.isBefore(dataRetirada)) {
+            throw new RuntimeException("Data de devolução deve ser posterior à data de retirada");
+        }
+        VeiculoDTO veiculo = veiculoRepository.buscarProjetadoPorId(veiculoId)
+                .orElseThrow(() -> new RuntimeException("Veículo não encontrado"));
 
-        if (locacao.getStatus() != StatusLocacao.ATIVA) {
-            throw new RuntimeException("Apenas locações ativas podem ser canceladas");
+        if (!veiculo.getDisponivel()) {
+            return false;
         }
+        return disponibilidadeVeiculos.estaLivre(veiculoId, dataRetirada, dataDevolucao);
+    }
 
-        locacao.setStatus(StatusLocacao.CANCELADA);
-        
-        // Liberar veículo
+    /**
+     * Tira o período da locação do índice de disponibilidade e avisa o mapa de ocupação.
+     * O campo disponivel do veículo não muda: ele só indica se a equipe o mantém em operação.
+     */
+    private void liberarPeriodo(Locacao locacao) {
         Veiculo veiculo = locacao.getVeiculo();
-        veiculo.setDisponivel(true);
-        veiculoRepository.save(veiculo);
+        disponibilidadeVeiculos.liberar(veiculo.getId(), locacao.getId(),
+                locacao.getDataRetirada(), locacao.getDataDevolucao());
+        eventPublisher.publishEvent(new LocacaoAlteradaEvent(locacao.getId(), veiculo.getId(),
+                locacao.getDataRetirada(), locacao.getDataDevolucao(), locacao.getStatus()));
+    }
 
-        locacao = locacaoRepository.save(locacao);
-        return new LocacaoDTO(locacao);
+    /**
+     * Espera curta e aleatória antes de repetir, para que as tentativas concorrentes não colidam de novo
+     */
+    private void aguardarNovaTentativa(int tentativa) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20) * tentativa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflitoException("Veículo sendo reservado por outra locação, tente novamente");
+        }
+    }
+
+    /**
+     * Junta duas listas já na ORDEM_HISTORICO mantendo a ordem, até limite itens
+     */
+    private static List<LocacaoDTO> intercalar(List<LocacaoDTO> a, List<LocacaoDTO> b, int limite) {
+        if (b.isEmpty()) {
+            return a;
+        }
+        List<LocacaoDTO> resultado = new ArrayList<>(Math.min(limite, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (resultado.size() < limite && (i < a.size() || j < b.size())) {
+            if (j >= b.size() || (i < a.size() && ORDEM_HISTORICO.compare(a.get(i), b.get(j)) <= 0)) {
+                resultado.add(a.get(i++));
+            } else {
+                resultado.add(b.get(j++));
+            }
+        }
+        return resultado;
+    }
+
+    private static TotaisLocacaoDTO somar(TotaisLocacaoDTO a, TotaisLocacaoDTO b) {
+        return new TotaisLocacaoDTO(a.getCategoria(), a.getStatus(), a.getQuantidade() + b.getQuantidade(),
+                a.getValorTotal().add(b.getValorTotal()));
+    }
+
+    private void validarPeriodo(LocalDate inicio, LocalDate fim) {
+        if (inicio != null && fim != null && fim.isBefore(inicio)) {
+            throw new RuntimeException("Data final deve ser posterior à data inicial");
+        }
+    }
+
+    private static String vazioComoNulo(String valor) {
+        return valor == null || valor.isBlank() ? null : valor;
+    }
+
+    // ========== CURSOR ==========
+
+    private String codificarCursor(LocalDate dataRetirada, Long id) {
+        String conteudo = dataRetirada + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = conteudo.split(":");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            // Valida a data de retirada e o id
+            LocalDate.parse(partes[0]);
+            Long.valueOf(partes[1]);
+            return partes;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
     }
 }
@@ -0,0 +1,323 @@
+package locadora.backend.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import locadora.backend.dto.VeiculoDTO;
+import locadora.backend.dto.VeiculoFiltroDTO;
+import locadora.backend.event.CatalogoAlteradoEvent;
+import locadora.backend.event.LocacaoAlteradaEvent;
+import locadora.backend.event.VeiculoAlteradoEvent;
+import locadora.backend.model.StatusLocacao;
+import locadora.backend.repository.LocacaoRepository;
+import locadora.backend.repository.VeiculoRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mapa de ocupação da frota por dia, para buscar veículos livres em um período.
+ *
+ * Cada veículo recebe uma posição (em ordem de id) e cada dia com locação ativa
+ * guarda um BitSet com as posições ocupadas. A busca faz o OR dos dias do
+ * período, complementa em relação à frota e cruza com o bitmap da categoria;
+ * os demais filtros são aplicados só sobre as posições que sobraram.
+ * Os dias seguem o mesmo intervalo semiaberto de {@link DisponibilidadeVeiculos}.
+ * A recarga completa lê o banco fora da trava; alterações que chegam nesse meio
+ * tempo são guardadas e reaplicadas sobre o mapa recarregado.
+ */
+@Component
+@RequiredArgsConstructor
+public class OcupacaoDiariaVeiculos {
+
+    public static final int MAXIMO_DIAS_PERIODO = 366;
+
+    private final VeiculoRepository veiculoRepository;
+    private final LocacaoRepository locacaoRepository;
+
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    // Posição -> veículo (null quando removido); ids crescentes para busca binária pelo cursor
+    private VeiculoDTO[] veiculos = new VeiculoDTO[0];
+    private long[] ids = new long[0];
+    private int tamanho;
+    private final Map<Long, Integer> posicaoPorId = new HashMap<>();
+
+    private final BitSet frota = new BitSet();
+    private final BitSet marcadosIndisponiveis = new BitSet();
+    private final Map<String, BitSet> porCategoria = new HashMap<>();
+
+    private final NavigableMap<LocalDate, BitSet> ocupacaoPorDia = new TreeMap<>();
+    // Locações sem devolução prevista (id -> posição e retirada): ocupam todo dia a partir da
+    // retirada, então ficam fora dos bitmaps diários em vez de marcar um horizonte que envelhece
+    private final Map<Long, LocacaoAberta> locacoesAbertas = new HashMap<>();
+
+    private record LocacaoAberta(int posicao, LocalDate retirada) {
+    }
+
+    // Alterações recebidas enquanto uma recarga lê o banco; reaplicadas sobre o mapa novo
+    private List<Object> alteracoesDuranteRecarga;
+    private final Object recarga = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        boolean recarregar = false;
+        synchronized (recarga) {
+            trava.writeLock().lock();
+            try {
+                alteracoesDuranteRecarga = new ArrayList<>();
+            } finally {
+                trava.writeLock().unlock();
+            }
+
+            List<VeiculoDTO> todos = new ArrayList<>(veiculoRepository.listarProjetado());
+            todos.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+            List<Object[]> periodos = locacaoRepository.listarPeriodosAtivos();
+
+            trava.writeLock().lock();
+            try {
+                veiculos = new VeiculoDTO[Math.max(16, todos.size())];
+                ids = new long[veiculos.length];
+                tamanho = 0;
+                posicaoPorId.clear();
+                frota.clear();
+                marcadosIndisponiveis.clear();
+                porCategoria.clear();
+                ocupacaoPorDia.clear();
+                locacoesAbertas.clear();
+
+                todos.forEach(this::adicionar);
+                for (Object[] periodo : periodos) {
+                    marcar((Long) periodo[0], (Long) periodo[1], (LocalDate) periodo[2], (LocalDate) periodo[3], true);
+                }
+                // A leitura pode ou não ter visto cada alteração; reaplicá-las em ordem leva ao estado final nos dois casos
+                for (Object alteracao : alteracoesDuranteRecarga) {
+                    if (alteracao instanceof LocacaoAlteradaEvent locacao) {
+                        aplicar(locacao);
+                    } else if (!aplicar((VeiculoAlteradoEvent) alteracao)) {
+                        recarregar = true;
+                    }
+                }
+                alteracoesDuranteRecarga = null;
+            } finally {
+                trava.writeLock().unlock();
+            }
+        }
+        if (recarregar) {
+            carregar();
+        }
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarVeiculo(VeiculoAlteradoEvent evento) {
+        boolean recarregar;
+        trava.writeLock().lock();
+        try {
+            recarregar = !aplicar(evento);
+            registrarDuranteRecarga(evento);
+        } finally {
+            trava.writeLock().unlock();
+        }
+        if (recarregar) {
+            carregar();
+        }
+    }
+
+    @Order(VersaoCatalogo.ORDEM_DERIVADOS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        carregar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarLocacao(LocacaoAlteradaEvent evento) {
+        trava.writeLock().lock();
+        try {
+            aplicar(evento);
+            registrarDuranteRecarga(evento);
+            // Dias já passados não são mais consultados
+            ocupacaoPorDia.headMap(LocalDate.now()).clear();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Veículos sem locação ativa em nenhum dia de [inicio, fim), em ordem de id,
+     * a partir do id seguinte a ultimoId (null = desde o início).
+     * Veículos marcados como indisponíveis pela equipe (fora de operação) também
+     * ficam de fora. Devolve até limite veículos.
+     */
+    public List<VeiculoDTO> buscarLivres(LocalDate inicio, LocalDate fim, VeiculoFiltroDTO filtro,
+                                         Long ultimoId, int limite) {
+        trava.readLock().lock();
+        try {
+            BitSet livres = (BitSet) frota.clone();
+
+            livres.andNot(marcadosIndisponiveis);
+
+            for (BitSet ocupados : ocupacaoPorDia.subMap(inicio, true, fim, false).values()) {
+                livres.andNot(ocupados);
+            }
+            for (LocacaoAberta aberta : locacoesAbertas.values()) {
+                if (aberta.retirada().isBefore(fim)) {
+                    livres.clear(aberta.posicao());
+                }
+            }
+
+            if (filtro.getCategoria() != null && !filtro.getCategoria().isBlank()) {
+                BitSet categoria = porCategoria.get(filtro.getCategoria());
+                if (categoria == null) {
+                    return List.of();
+                }
+                livres.and(categoria);
+            }
+
+            int posicao = 0;
+            if (ultimoId != null) {
+                int encontrada = Arrays.binarySearch(ids, 0, tamanho, ultimoId);
+                posicao = encontrada >= 0 ? encontrada + 1 : -encontrada - 1;
+            }
+
+            List<VeiculoDTO> resultado = new ArrayList<>(limite);
+            for (int i = livres.nextSetBit(posicao); i >= 0 && resultado.size() < limite; i = livres.nextSetBit(i + 1)) {
+                VeiculoDTO veiculo = veiculos[i];
+                if (atendeFiltros(veiculo, filtro)) {
+                    resultado.add(veiculo);
+                }
+            }
+            return resultado;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // ========== MANUTENÇÃO (chamados com a trava de escrita) ==========
+
+    /**
+     * Devolve false se o veículo novo não puder entrar na ordem de ids; aí o mapa precisa ser recarregado
+     */
+    private boolean aplicar(VeiculoAlteradoEvent evento) {
+        Integer posicao = posicaoPorId.get(evento.veiculoId());
+        if (posicao == null) {
+            return evento.atual() == null || adicionar(evento.atual());
+        }
+        removerDosFiltros(posicao);
+        if (evento.atual() == null) {
+            veiculos[posicao] = null;
+            frota.clear(posicao);
+        } else {
+            veiculos[posicao] = evento.atual();
+            aplicarFiltros(posicao, evento.atual());
+        }
+        return true;
+    }
+
+    private void aplicar(LocacaoAlteradaEvent evento) {
+        marcar(evento.veiculoId(), evento.locacaoId(), evento.dataRetirada(), evento.dataDevolucao(),
+                evento.status() == StatusLocacao.ATIVA);
+    }
+
+    private void registrarDuranteRecarga(Object alteracao) {
+        if (alteracoesDuranteRecarga != null) {
+            alteracoesDuranteRecarga.add(alteracao);
+        }
+    }
+
+    /**
+     * Acrescenta o veículo na próxima posição. Devolve false se o id for menor que o
+     * último (commits concorrentes chegando fora de ordem); aí o mapa é recarregado.
+     */
+    private boolean adicionar(VeiculoDTO veiculo) {
+        if (tamanho > 0 && veiculo.getId() <= ids[tamanho - 1]) {
+            return false;
+        }
+        if (tamanho == veiculos.length) {
+            int novoTamanho = Math.max(16, tamanho * 2);
+            veiculos = Arrays.copyOf(veiculos, novoTamanho);
+            ids = Arrays.copyOf(ids, novoTamanho);
+        }
+        int posicao = tamanho++;
+        veiculos[posicao] = veiculo;
+        ids[posicao] = veiculo.getId();
+        posicaoPorId.put(veiculo.getId(), posicao);
+        frota.set(posicao);
+        aplicarFiltros(posicao, veiculo);
+        return true;
+    }
+
+    private void aplicarFiltros(int posicao, VeiculoDTO veiculo) {
+        porCategoria.computeIfAbsent(veiculo.getCategoria(), c -> new BitSet()).set(posicao);
+        marcadosIndisponiveis.set(posicao, !Boolean.TRUE.equals(veiculo.getDisponivel()));
+    }
+
+    private void removerDosFiltros(int posicao) {
+        VeiculoDTO anterior = veiculos[posicao];
+        if (anterior != null) {
+            BitSet categoria = porCategoria.get(anterior.getCategoria());
+            if (categoria != null) {
+                categoria.clear(posicao);
+                if (categoria.isEmpty()) {
+                    porCategoria.remove(anterior.getCategoria());
+                }
+            }
+        }
+        marcadosIndisponiveis.clear(posicao);
+    }
+
+    private void marcar(Long veiculoId, Long locacaoId, LocalDate retirada, LocalDate devolucao, boolean ocupar) {
+        Integer posicao = posicaoPorId.get(veiculoId);
+        if (posicao == null) {
+            return;
+        }
+        if (devolucao == null) {
+            if (ocupar) {
+                locacoesAbertas.put(locacaoId, new LocacaoAberta(posicao, retirada));
+            } else {
+                locacoesAbertas.remove(locacaoId);
+            }
+            return;
+        }
+        // Dias anteriores a hoje já foram descartados do mapa
+        LocalDate hoje = LocalDate.now();
+        LocalDate inicio = retirada.isBefore(hoje) ? hoje : retirada;
+        LocalDate fim = devolucao.isAfter(retirada) ? devolucao : retirada.plusDays(1);
+        for (LocalDate dia = inicio; dia.isBefore(fim); dia = dia.plusDays(1)) {
+            if (ocupar) {
+                ocupacaoPorDia.computeIfAbsent(dia, d -> new BitSet()).set(posicao);
+            } else {
+                BitSet ocupados = ocupacaoPorDia.get(dia);
+                if (ocupados != null) {
+                    ocupados.clear(posicao);
+                    if (ocupados.isEmpty()) {
+                        ocupacaoPorDia.remove(dia);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean atendeFiltros(VeiculoDTO veiculo, VeiculoFiltroDTO filtro) {
+        BigDecimal preco = veiculo.getValorDiaria();
+        return (filtro.getMarca() == null || filtro.getMarca().isBlank() || filtro.getMarca().equals(veiculo.getMarca()))
+                && (filtro.getPrecoMin() == null || preco.compareTo(filtro.getPrecoMin()) >= 0)
+                && (filtro.getPrecoMax() == null || preco.compareTo(filtro.getPrecoMax()) <= 0)
+                && (filtro.getAnoMin() == null || veiculo.getAno() >= filtro.getAnoMin())
+                && (filtro.getAnoMax() == null || veiculo.getAno() <= filtro.getAnoMax());
+    }
+}
@@ -0,0 +1,185 @@
+package locadora.backend.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import locadora.backend.dto.ReceitaPeriodoDTO;
+import locadora.backend.model.Granularidade;
+import locadora.backend.model.Locacao;
+import locadora.backend.model.ReceitaDiaria;
+import locadora.backend.model.StatusLocacao;
+import locadora.backend.repository.ReceitaDiariaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Receita por dia de retirada × categoria × status (tabela receita_diaria).
+ *
+ * O LocacaoService registra cada criação e encerramento na mesma transação da
+ * locação; as séries dos relatórios somam os baldes diários do intervalo, sem
+ * percorrer o histórico de locações. O balde usa a categoria gravada na locação
+ * ao criá-la, então o encerramento sai do mesmo balde em que a criação entrou,
+ * mesmo que o veículo tenha mudado de categoria. A reconstrução completa roda
+ * diariamente (e na subida, se a tabela estiver vazia), avançando por faixas de
+ * data de retirada, cada uma em uma transação curta.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReceitaLocacoes {
+
+    public static final int MAXIMO_PERIODOS = 1000;
+
+    private final ReceitaDiariaRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${receita.locacoes.reconstrucao-meses-por-lote:1}")
+    private int mesesPorLote;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCriacao(Locacao locacao) {
+        somar(locacao, StatusLocacao.ATIVA, 1, locacao.getValorTotal());
+    }
+
+    /**
+     * Locação ativa que acabou de ser finalizada ou cancelada: sai do balde ATIVA e entra no do novo status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEncerramento(Locacao locacao) {
+        if (locacao.getStatus() == StatusLocacao.ATIVA) {
+            throw new IllegalArgumentException("Locação ainda está ativa");
+        }
+        somar(locacao, StatusLocacao.ATIVA, -1, locacao.getValorTotal().negate());
+        somar(locacao, locacao.getStatus(), 1, locacao.getValorTotal());
+    }
+
+    private void somar(Locacao locacao, StatusLocacao status, long quantidade, BigDecimal valor) {
+        repository.somar(locacao.getDataRetirada(), categoria(locacao), status.name(),
+                quantidade, valor, LocalDateTime.now());
+    }
+
+    // Locações criadas antes da coluna categoria caem na categoria atual, como na reconstrução
+    private static String categoria(Locacao locacao) {
+        return locacao.getCategoria() != null ? locacao.getCategoria() : locacao.getVeiculo().getCategoria();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (repository.count() == 0) {
+            reconstruir();
+        }
+    }
+
+    @Scheduled(cron = "${receita.locacoes.reconstrucao-cron:0 30 3 * * *}")
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        // Em segundos: o banco guarda menos casas decimais e poderia arredondar os baldes regravados para antes de agora
+        LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDate primeiro = repository.menorDia();
+        LocalDate ultimo = repository.maiorDia();
+        int baldes = 0;
+        for (LocalDate de = primeiro; de != null && !de.isAfter(ultimo); de = de.plusMonths(mesesPorLote)) {
+            LocalDate faixaInicio = de;
+            LocalDate faixaFim = min(ultimo, de.plusMonths(mesesPorLote).minusDays(1));
+            baldes += transactionTemplate.execute(status -> {
+                int atualizados = repository.recalcularPeriodo(faixaInicio, faixaFim, agora);
+                repository.removerAnteriores(faixaInicio, faixaFim, agora);
+                return atualizados;
+            });
+        }
+        log.info("Receita diária recalculada: {} baldes em {} ms", baldes, System.currentTimeMillis() - inicio);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Séries de receita das locações retiradas em [inicio, fim] (inclusive), por status
+     * e, se porCategoria, também por categoria. categoria e status opcionais filtram os baldes.
+     */
+    @Transactional(readOnly = true)
+    public ReceitaPeriodoDTO consultar(LocalDate inicio, LocalDate fim, Granularidade granularidade,
+                                       String categoria, StatusLocacao status, boolean porCategoria) {
+        if (fim.isBefore(inicio)) {
+            throw new RuntimeException("Data final deve ser posterior à data inicial");
+        }
+        List<LocalDate> periodos = dividirEmPeriodos(inicio, fim, granularidade);
+        String filtroCategoria = categoria == null || categoria.isBlank() ? null : categoria;
+
+        // (categoria, status) -> série; categoria vazia quando as categorias são somadas
+        Map<String, Map<StatusLocacao, Acumulador>> series = new TreeMap<>();
+        for (ReceitaDiaria balde : repository.listarPeriodo(inicio, fim, filtroCategoria, status)) {
+            ReceitaDiaria.Chave chave = balde.getChave();
+            if (balde.getQuantidade() == 0 && balde.getValorTotal().signum() == 0) {
+                continue;
+            }
+            // Período que começa no dia ou o último antes dele
+            int posicao = Collections.binarySearch(periodos, chave.getDia());
+            int periodo = posicao >= 0 ? posicao : -posicao - 2;
+            String categoriaSerie = porCategoria ? chave.getCategoria() : "";
+            series.computeIfAbsent(categoriaSerie, c -> new TreeMap<>())
+                    .computeIfAbsent(chave.getStatus(), s -> new Acumulador(periodos.size()))
+                    .somar(periodo, balde.getQuantidade(), balde.getValorTotal());
+        }
+
+        List<ReceitaPeriodoDTO.Serie> resultado = new ArrayList<>();
+        series.forEach((categoriaSerie, porStatus) -> porStatus.forEach((statusSerie, acumulador) ->
+                resultado.add(acumulador.paraSerie(categoriaSerie.isEmpty() ? null : categoriaSerie, statusSerie))));
+        return new ReceitaPeriodoDTO(inicio, fim, granularidade.name(), periodos, resultado);
+    }
+
+    private static List<LocalDate> dividirEmPeriodos(LocalDate inicio, LocalDate fim, Granularidade granularidade) {
+        List<LocalDate> periodos = new ArrayList<>();
+        // O primeiro período pode começar no meio da semana/mês: vale a data inicial
+        periodos.add(inicio);
+        for (LocalDate periodo = granularidade.proximoPeriodo(granularidade.inicioDoPeriodo(inicio));
+             !periodo.isAfter(fim); periodo = granularidade.proximoPeriodo(periodo)) {
+            if (periodos.size() == MAXIMO_PERIODOS) {
+                throw new RuntimeException("Intervalo muito longo: máximo de " + MAXIMO_PERIODOS
+                        + " períodos por série");
+            }
+            periodos.add(periodo);
+        }
+        return periodos;
+    }
+
+    private static final class Acumulador {
+        final long[] quantidade;
+        final BigDecimal[] valor;
+
+        Acumulador(int periodos) {
+            quantidade = new long[periodos];
+            valor = new BigDecimal[periodos];
+            Arrays.fill(valor, BigDecimal.ZERO);
+        }
+
+        void somar(int periodo, long quantidadeBalde, BigDecimal valorBalde) {
+            quantidade[periodo] += quantidadeBalde;
+            valor[periodo] = valor[periodo].add(valorBalde);
+        }
+
+        ReceitaPeriodoDTO.Serie paraSerie(String categoria, StatusLocacao status) {
+            return new ReceitaPeriodoDTO.Serie(categoria, status, quantidade, valor,
+                    Arrays.stream(quantidade).sum(),
+                    Arrays.stream(valor).reduce(BigDecimal.ZERO, BigDecimal::add));
+        }
+    }
+}
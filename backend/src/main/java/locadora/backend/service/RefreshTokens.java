@@ -0,0 +1,142 @@
+package locadora.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import locadora.backend.cache.CacheLocal;
+import locadora.backend.model.RefreshToken;
+import locadora.backend.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Refresh tokens opacos com rotação: cada renovação consome o token apresentado e emite outro.
+ * Reapresentar um token já usado indica vazamento; todos os refresh tokens do usuário são removidos.
+ *
+ * Abas do mesmo navegador compartilham o refresh token e podem renová-lo quase juntas. Por
+ * isso, dentro da carência após o uso, reapresentar o token devolve o mesmo sucessor (guardado
+ * em memória, por instância) em vez de encerrar as sessões. Sem o sucessor em memória (outra
+ * instância, reinício), a renovação dentro da carência só é recusada; passada a carência,
+ * vale a detecção de reuso.
+ */
+@Slf4j
+@Service
+public class RefreshTokens {
+
+    private final RefreshTokenRepository repository;
+    private final Duration validade;
+    private final Duration carencia;
+    private final SecureRandom aleatorio = new SecureRandom();
+
+    // Hash do token consumido -> renovação que ele gerou, pelo tempo da carência
+    private final CacheLocal<String, Renovacao> sucessores;
+
+    /**
+     * Dono do token consumido e refresh token que o substitui
+     */
+    public record Renovacao(Long usuarioId, String sucessor) {
+    }
+
+    public RefreshTokens(RefreshTokenRepository repository,
+                         @Value("${jwt.refresh.expiration:1209600000}") long validadeMs,
+                         @Value("${jwt.refresh.carencia-ms:30000}") long carenciaMs,
+                         @Value("${jwt.refresh.carencia-maximo:10000}") int maximoSucessores) {
+        this.repository = repository;
+        this.validade = Duration.ofMillis(validadeMs);
+        this.carencia = Duration.ofMillis(carenciaMs);
+        this.sucessores = new CacheLocal<>("jwt.refresh.sucessores", maximoSucessores,
+                Duration.ofMillis(Math.max(1, carenciaMs)));
+    }
+
+    @Transactional
+    public String emitir(Long usuarioId) {
+        byte[] bytes = new byte[32];
+        aleatorio.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        repository.save(new RefreshToken(null, usuarioId, resumir(token), LocalDateTime.now().plus(validade), null, null));
+        return token;
+    }
+
+    /**
+     * Consome o token e emite o sucessor; dentro da carência, devolve o sucessor já emitido.
+     * Vazio se inválido, expirado ou reapresentado depois da carência.
+     */
+    @Transactional
+    public Optional<Renovacao> rotacionar(String token) {
+        String hash = resumir(token);
+        Optional<RefreshToken> encontrado = repository.findByHash(hash);
+        if (encontrado.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken refreshToken = encontrado.get();
+        LocalDateTime agora = LocalDateTime.now();
+        if (refreshToken.getExpiraEm().isBefore(agora)) {
+            return Optional.empty();
+        }
+        if (repository.marcarUsado(refreshToken.getId(), agora) == 0) {
+            // usadoEm nulo: marcado por uma renovação concorrente que acabou de commitar
+            LocalDateTime usadoEm = refreshToken.getUsadoEm();
+            if (usadoEm == null || !usadoEm.plus(carencia).isBefore(agora)) {
+                return Optional.ofNullable(sucessores.obterSePresente(hash));
+            }
+            repository.removerDoUsuario(refreshToken.getUsuarioId());
+            log.warn("Refresh token reapresentado para o usuário {}; sessões encerradas", refreshToken.getUsuarioId());
+            return Optional.empty();
+        }
+
+        Renovacao renovacao = new Renovacao(refreshToken.getUsuarioId(), emitir(refreshToken.getUsuarioId()));
+        // Gravado antes do commit: a concorrente fica presa na linha até lá e já encontra o sucessor
+        sucessores.gravar(hash, renovacao);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        sucessores.invalidar(hash);
+                    }
+                }
+            });
+        }
+        return Optional.of(renovacao);
+    }
+
+    @Transactional
+    public void revogar(String token) {
+        repository.removerPorHash(resumir(token));
+    }
+
+    @Transactional
+    public void revogarTodos(Long usuarioId) {
+        repository.removerDoUsuario(usuarioId);
+    }
+
+    @Scheduled(cron = "${jwt.refresh.limpeza-cron:0 15 * * * *}")
+    @Transactional
+    public void removerExpirados() {
+        int removidos = repository.removerExpirados(LocalDateTime.now());
+        if (removidos > 0) {
+            log.info("{} refresh tokens expirados removidos", removidos);
+        }
+    }
+
+    private static String resumir(String token) {
+        try {
+            byte[] resumo = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(resumo);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package locadora.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import locadora.backend.cache.FiltroBloom;
+import locadora.backend.model.RevogacaoAcesso;
+import locadora.backend.repository.RevogacaoAcessoRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Revogação dos tokens de acesso de um usuário (rebaixamento, desativação...): tokens
+ * emitidos antes da revogação deixam de valer, mesmo dentro da validade.
+ *
+ * A tabela revogacoes_acesso é a fonte; em memória fica só a janela em que algum token
+ * revogado ainda não expirou, como mapa usuário -> segundo a partir do qual os tokens
+ * valem, precedido de um filtro de Bloom. Na autenticação quase todo usuário não tem
+ * revogação: o filtro responde em nanossegundos, sem tocar no mapa nem no banco.
+ * Revogações locais entram após o commit; as de outras instâncias, na próxima atualização.
+ */
+@Slf4j
+@Service
+public class RevogacaoTokens {
+
+    private static final double TAXA_FALSOS_POSITIVOS = 0.01;
+    private static final Duration MARGEM = Duration.ofMinutes(1);
+
+    private final RevogacaoAcessoRepository repository;
+    private final Duration validadeAcesso;
+
+    private volatile Revogacoes atual = new Revogacoes(FiltroBloom.vazio(), Map.of());
+
+    /**
+     * Usuário -> primeiro segundo (epoch) em que tokens emitidos voltam a valer
+     */
+    private record Revogacoes(FiltroBloom filtro, Map<Long, Long> validoDesde) {
+    }
+
+    public RevogacaoTokens(RevogacaoAcessoRepository repository,
+                           @Value("${jwt.expiration}") long validadeAcessoMs) {
+        this.repository = repository;
+        this.validadeAcesso = Duration.ofMillis(validadeAcessoMs);
+    }
+
+    public boolean revogado(Long usuarioId, long emitidoEmSegundos) {
+        if (usuarioId == null) {
+            return false;
+        }
+        Revogacoes revogacoes = atual;
+        if (!revogacoes.filtro().talvezContem(usuarioId)) {
+            return false;
+        }
+        Long desde = revogacoes.validoDesde().get(usuarioId);
+        return desde != null && emitidoEmSegundos < desde;
+    }
+
+    /**
+     * Instante mínimo (ms) para o iat de um novo token do usuário não cair na revogação
+     */
+    public long validoDesdeMs(Long usuarioId) {
+        Long desde = atual.validoDesde().get(usuarioId);
+        return desde == null ? 0 : desde * 1000;
+    }
+
+    /**
+     * Dentro de uma transação, a revogação só passa a valer em memória depois do commit
+     */
+    @Transactional
+    public void revogar(Long usuarioId) {
+        // Tokens emitidos logo após a revogação anterior têm iat nesse segundo: esta precisa ir além dele
+        long desde = segundoSeguinte(LocalDateTime.now());
+        Long anterior = atual.validoDesde().get(usuarioId);
+        if (anterior != null && anterior >= desde) {
+            desde = anterior + 1;
+        }
+        repository.save(new RevogacaoAcesso(null, usuarioId,
+                LocalDateTime.ofInstant(Instant.ofEpochSecond(desde), ZoneId.systemDefault())));
+        Map<Long, Long> revogacao = Map.of(usuarioId, desde);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incorporar(revogacao);
+                }
+            });
+        } else {
+            incorporar(revogacao);
+        }
+        log.info("Tokens de acesso do usuário {} revogados", usuarioId);
+    }
+
+    /**
+     * Recarrega a janela a partir da tabela (revogações de outras instâncias) e apaga as antigas
+     */
+    @Scheduled(fixedDelayString = "${revogacao.atualizacao-ms:10000}")
+    @Transactional
+    public void atualizar() {
+        LocalDateTime limite = LocalDateTime.now().minus(validadeAcesso).minus(MARGEM);
+        repository.removerAnteriores(limite);
+        Map<Long, Long> validoDesde = new HashMap<>();
+        for (RevogacaoAcesso revogacao : repository.listarDesde(limite)) {
+            validoDesde.merge(revogacao.getUsuarioId(), segundoSeguinte(revogacao.getRevogadoEm()), Math::max);
+        }
+        incorporar(validoDesde);
+    }
+
+    // Une ao estado atual (uma revogação local recém-commitada não some numa recarga lida antes dela) e descarta as vencidas
+    private synchronized void incorporar(Map<Long, Long> novas) {
+        long limite = segundoSeguinte(LocalDateTime.now().minus(validadeAcesso).minus(MARGEM));
+        Map<Long, Long> validoDesde = new HashMap<>();
+        atual.validoDesde().forEach((usuarioId, desde) -> {
+            if (desde >= limite) {
+                validoDesde.put(usuarioId, desde);
+            }
+        });
+        novas.forEach((usuarioId, desde) -> validoDesde.merge(usuarioId, desde, Math::max));
+        atual = new Revogacoes(FiltroBloom.de(validoDesde.keySet(), TAXA_FALSOS_POSITIVOS), Map.copyOf(validoDesde));
+    }
+
+    // O iat do JWT tem resolução de segundos: vale a partir do segundo seguinte à revogação
+    private static long segundoSeguinte(LocalDateTime instante) {
+        var zonado = instante.atZone(ZoneId.systemDefault()).toInstant();
+        return zonado.getEpochSecond() + (zonado.getNano() > 0 ? 1 : 0);
+    }
+}
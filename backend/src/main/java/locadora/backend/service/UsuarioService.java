@@ -1,7 +1,6 @@
 package locadora.backend.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,23 +11,22 @@ import locadora.backend.model.Usuario;
 import locadora.backend.repository.UsuarioRepository;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final HashSenhas hashSenhas;
+    private final RevogacaoTokens revogacaoTokens;
+    private final RefreshTokens refreshTokens;
 
     /**
      * Listar todos os usuários (apenas para funcionários)
      */
     @Transactional(readOnly = true)
     public List<UsuarioDTO> listarTodos() {
-        return usuarioRepository.findAll().stream()
-                .map(UsuarioDTO::new)
-                .collect(Collectors.toList());
+        return usuarioRepository.listarProjetado();
     }
 
     /**
@@ -36,9 +34,8 @@ public class UsuarioService {
      */
     @Transactional(readOnly = true)
     public UsuarioDTO buscarPorId(Long id) {
-        Usuario usuario = usuarioRepository.findById(id)
+        return usuarioRepository.buscarProjetadoPorId(id)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        return new UsuarioDTO(usuario);
     }
 
     /**
@@ -46,15 +43,14 @@ public class UsuarioService {
      */
     @Transactional(readOnly = true)
     public UsuarioDTO buscarPorEmail(String email) {
-        Usuario usuario = usuarioRepository.findByEmail(email)
+        return usuarioRepository.buscarProjetadoPorEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        return new UsuarioDTO(usuario);
     }
 
     /**
      * Criar novo usuário (usado para criar funcionários manualmente)
+     * Sem transação envolvendo o método, como no AuthService.register: o hash não segura conexão do banco
      */
-    @Transactional
     public UsuarioDTO criar(RegisterRequest request) {
         // Validar se email já existe
         if (usuarioRepository.existsByEmail(request.getEmail())) {
@@ -84,7 +80,7 @@ public class UsuarioService {
         usuario.setNome(request.getNome());
         usuario.setCpf(request.getCpf());
         usuario.setEmail(request.getEmail());
-        usuario.setSenha(passwordEncoder.encode(request.getSenha()));
+        usuario.setSenha(hashSenhas.codificar(request.getSenha()));
         usuario.setTelefone(request.getTelefone());
         usuario.setEndereco(endereco);
         usuario.setAtivo(true);
@@ -131,6 +127,8 @@ public class UsuarioService {
 
         usuario.setIsFuncionario(true);
         usuario = usuarioRepository.save(usuario);
+        // Tokens com o papel antigo deixam de valer; o próximo refresh traz o novo papel
+        revogacaoTokens.revogar(id);
 
         return new UsuarioDTO(usuario);
     }
@@ -149,6 +147,8 @@ public class UsuarioService {
 
         usuario.setIsFuncionario(false);
         usuario = usuarioRepository.save(usuario);
+        // Tokens com o papel antigo deixam de valer; o próximo refresh traz o novo papel
+        revogacaoTokens.revogar(id);
 
         return new UsuarioDTO(usuario);
     }
@@ -177,6 +177,9 @@ public class UsuarioService {
 
         usuario.setAtivo(false);
         usuario = usuarioRepository.save(usuario);
+        // Encerra as sessões: tokens de acesso revogados e refresh tokens removidos
+        revogacaoTokens.revogar(id);
+        refreshTokens.revogarTodos(id);
 
         return new UsuarioDTO(usuario);
     }
@@ -191,6 +194,9 @@ public class UsuarioService {
 
         usuario.setAtivo(false);
         usuarioRepository.save(usuario);
+        // Encerra as sessões: tokens de acesso revogados e refresh tokens removidos
+        revogacaoTokens.revogar(id);
+        refreshTokens.revogarTodos(id);
     }
 
     /**
@@ -198,10 +204,7 @@ public class UsuarioService {
      */
     @Transactional(readOnly = true)
     public List<UsuarioDTO> listarFuncionarios() {
-        return usuarioRepository.findAll().stream()
-                .filter(Usuario::getIsFuncionario)
-                .map(UsuarioDTO::new)
-                .collect(Collectors.toList());
+        return usuarioRepository.listarProjetadoPorTipo(true);
     }
 
     /**
@@ -209,9 +212,6 @@ public class UsuarioService {
      */
     @Transactional(readOnly = true)
     public List<UsuarioDTO> listarClientes() {
-        return usuarioRepository.findAll().stream()
-                .filter(u -> !u.getIsFuncionario())
-                .map(UsuarioDTO::new)
-                .collect(Collectors.toList());
+        return usuarioRepository.listarProjetadoPorTipo(false);
     }
 }
@@ -0,0 +1,356 @@
+package locadora.backend.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import locadora.backend.dto.UtilizacaoFrotaDTO;
+import locadora.backend.model.Granularidade;
+
+/**
+ * Ocupação da frota por dia, semana ou mês, calculada direto das datas das locações.
+ *
+ * A frota é dividida em faixas de ids processadas em paralelo (fork/join). Cada faixa
+ * lê só (veiculo_id, retirada, devolução) via JDBC e marca os dias ocupados em um
+ * bitmap por veículo; depois os bits são somados por período em arrays primitivos.
+ * Os dias seguem o intervalo semiaberto das locações: [retirada, devolução), com no
+ * mínimo um dia. Locações canceladas não ocupam o veículo.
+ *
+ * As leituras no banco de todas as faixas passam por um semáforo com poucas
+ * permissões, para o relatório não ocupar o pool de conexões; só a marcação e a
+ * soma dos bitmaps usam todas as threads do fork/join.
+ */
+@Component
+public class UtilizacaoFrota {
+
+    public static final int MAXIMO_DIAS_PERIODO = 731;
+    // Veículos x períodos no detalhamento por veículo (incluirVeiculos)
+    public static final int MAXIMO_CELULAS_POR_VEICULO = 500_000;
+    private static final int VEICULOS_POR_PARTICAO = 2048;
+
+    private static final String PERIODOS_LOCACOES = """
+            SELECT veiculo_id, data_retirada, data_devolucao FROM locacoes
+            WHERE veiculo_id BETWEEN ? AND ? AND status <> 'CANCELADA'
+              AND data_retirada <= ? AND (data_devolucao IS NULL OR data_devolucao >= ?)
+            """;
+
+    // Status 1 = FINALIZADA (o arquivo guarda a posição em StatusLocacao)
+    private static final String PERIODOS_ARQUIVO = """
+            SELECT veiculo_id, data_retirada, data_devolucao FROM locacoes_arquivo
+            WHERE veiculo_id BETWEEN ? AND ? AND status = 1
+              AND data_retirada <= ? AND (data_devolucao IS NULL OR data_devolucao >= ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArquivamentoLocacoes arquivamentoLocacoes;
+
+    private final ForkJoinPool processamento =
+            new ForkJoinPool(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8)));
+    // Conexões usadas ao mesmo tempo pelas faixas (somando todos os relatórios em andamento)
+    private final Semaphore consultas;
+
+    public UtilizacaoFrota(JdbcTemplate jdbcTemplate, ArquivamentoLocacoes arquivamentoLocacoes,
+                           @Value("${relatorios.utilizacao.consultas-simultaneas:2}") int consultasSimultaneas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.arquivamentoLocacoes = arquivamentoLocacoes;
+        this.consultas = new Semaphore(Math.max(1, consultasSimultaneas), true);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        processamento.shutdownNow();
+    }
+
+    /**
+     * Ocupação em [inicio, fim] (inclusive), opcionalmente só de uma categoria
+     */
+    public UtilizacaoFrotaDTO calcular(LocalDate inicio, LocalDate fim, Granularidade granularidade,
+                                       String categoria, boolean incluirVeiculos) {
+        if (fim.isBefore(inicio)) {
+            throw new RuntimeException("Data final deve ser posterior à data inicial");
+        }
+        int dias = (int) ChronoUnit.DAYS.between(inicio, fim) + 1;
+        if (dias > MAXIMO_DIAS_PERIODO) {
+            throw new RuntimeException("Período máximo de análise é de " + MAXIMO_DIAS_PERIODO + " dias");
+        }
+
+        Periodos periodos = dividirEmPeriodos(inicio, dias, granularidade);
+        Frota frota = carregarFrota(categoria);
+        if (incluirVeiculos && (long) frota.tamanho * periodos.quantidade() > MAXIMO_CELULAS_POR_VEICULO) {
+            throw new RuntimeException("Detalhamento por veículo limitado a " + MAXIMO_CELULAS_POR_VEICULO
+                    + " veículos x períodos; filtre por categoria ou use uma granularidade maior");
+        }
+
+        Calculo calculo = new Calculo(inicio, dias, periodos, frota, incluirVeiculos,
+                arquivamentoLocacoes.abrangeArquivo(inicio));
+        long[] ocupadosPorCategoria = processamento.invoke(new Particao(calculo, 0, frota.tamanho));
+
+        return montarResultado(inicio, fim, granularidade, periodos, frota, calculo, ocupadosPorCategoria);
+    }
+
+    // ========== PERÍODOS E FROTA ==========
+
+    private record Periodos(List<LocalDate> inicios, int[] dias, int[] periodoDoDia) {
+        int quantidade() {
+            return dias.length;
+        }
+    }
+
+    private static Periodos dividirEmPeriodos(LocalDate inicio, int dias, Granularidade granularidade) {
+        int[] periodoDoDia = new int[dias];
+        List<LocalDate> inicios = new ArrayList<>();
+        List<Integer> tamanhos = new ArrayList<>();
+        LocalDate inicioAtual = null;
+        for (int d = 0; d < dias; d++) {
+            LocalDate dia = inicio.plusDays(d);
+            LocalDate inicioPeriodo = granularidade.inicioDoPeriodo(dia);
+            if (!inicioPeriodo.equals(inicioAtual)) {
+                inicioAtual = inicioPeriodo;
+                // O primeiro período pode começar no meio da semana/mês: vale a data inicial
+                inicios.add(d == 0 ? dia : inicioPeriodo);
+                tamanhos.add(0);
+            }
+            int periodo = inicios.size() - 1;
+            periodoDoDia[d] = periodo;
+            tamanhos.set(periodo, tamanhos.get(periodo) + 1);
+        }
+        return new Periodos(inicios, tamanhos.stream().mapToInt(Integer::intValue).toArray(), periodoDoDia);
+    }
+
+    /**
+     * Ids em ordem crescente e o índice da categoria de cada veículo
+     */
+    private static final class Frota {
+        long[] ids = new long[1024];
+        int[] categoria = new int[1024];
+        int tamanho;
+        final List<String> categorias = new ArrayList<>();
+        final Map<String, Integer> indiceCategoria = new HashMap<>();
+
+        void adicionar(long id, String nomeCategoria) {
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+                categoria = Arrays.copyOf(categoria, tamanho * 2);
+            }
+            Integer indice = indiceCategoria.get(nomeCategoria);
+            if (indice == null) {
+                indice = categorias.size();
+                categorias.add(nomeCategoria);
+                indiceCategoria.put(nomeCategoria, indice);
+            }
+            ids[tamanho] = id;
+            categoria[tamanho] = indice;
+            tamanho++;
+        }
+    }
+
+    private Frota carregarFrota(String categoria) {
+        Frota frota = new Frota();
+        if (categoria == null || categoria.isBlank()) {
+            jdbcTemplate.query("SELECT id, categoria FROM veiculos ORDER BY id",
+                    (ResultSet rs) -> frota.adicionar(rs.getLong(1), rs.getString(2)));
+        } else {
+            jdbcTemplate.query("SELECT id, categoria FROM veiculos WHERE categoria = ? ORDER BY id",
+                    (ResultSet rs) -> frota.adicionar(rs.getLong(1), rs.getString(2)), categoria);
+        }
+        return frota;
+    }
+
+    // ========== CÁLCULO PARALELO ==========
+
+    /**
+     * Estado compartilhado pelas partições; cada uma escreve só nas posições dos seus veículos
+     */
+    private static final class Calculo {
+        final long inicioEpoch;
+        final int dias;
+        final int palavras;
+        final Periodos periodos;
+        final Frota frota;
+        final boolean incluirArquivo;
+        final LocalDate inicio;
+        final LocalDate fim;
+
+        final int[] diasOcupados;
+        final int[] maiorPeriodoOcioso;
+        // veículo * quantidade de períodos + período; só quando os veículos são detalhados
+        final int[] ocupadosPorVeiculoPeriodo;
+
+        Calculo(LocalDate inicio, int dias, Periodos periodos, Frota frota, boolean incluirVeiculos,
+                boolean incluirArquivo) {
+            this.inicio = inicio;
+            this.fim = inicio.plusDays(dias - 1);
+            this.inicioEpoch = inicio.toEpochDay();
+            this.dias = dias;
+            this.palavras = (dias + 63) >>> 6;
+            this.periodos = periodos;
+            this.frota = frota;
+            this.incluirArquivo = incluirArquivo;
+            this.diasOcupados = new int[frota.tamanho];
+            this.maiorPeriodoOcioso = new int[frota.tamanho];
+            this.ocupadosPorVeiculoPeriodo = incluirVeiculos ? new int[frota.tamanho * periodos.quantidade()] : null;
+        }
+    }
+
+    /**
+     * Faixa [de, ate) de posições da frota. Devolve os veículo-dias ocupados
+     * por categoria e período (categoria * quantidade de períodos + período).
+     */
+    private final class Particao extends RecursiveTask<long[]> {
+        private final Calculo calculo;
+        private final int de;
+        private final int ate;
+
+        Particao(Calculo calculo, int de, int ate) {
+            this.calculo = calculo;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (ate - de <= VEICULOS_POR_PARTICAO) {
+                return processar();
+            }
+            int meio = (de + ate) >>> 1;
+            Particao esquerda = new Particao(calculo, de, meio);
+            esquerda.fork();
+            long[] direita = new Particao(calculo, meio, ate).compute();
+            long[] resultado = esquerda.join();
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] += direita[i];
+            }
+            return resultado;
+        }
+
+        private long[] processar() {
+            int quantidadePeriodos = calculo.periodos.quantidade();
+            long[] ocupados = new long[calculo.frota.categorias.size() * quantidadePeriodos];
+            if (de >= ate) {
+                return ocupados;
+            }
+
+            long[] bitmap = new long[(ate - de) * calculo.palavras];
+            Object[] parametros = {calculo.frota.ids[de], calculo.frota.ids[ate - 1], calculo.fim, calculo.inicio};
+            consultas.acquireUninterruptibly();
+            try {
+                jdbcTemplate.query(PERIODOS_LOCACOES, (ResultSet rs) -> marcar(rs, bitmap), parametros);
+                if (calculo.incluirArquivo) {
+                    jdbcTemplate.query(PERIODOS_ARQUIVO, (ResultSet rs) -> marcar(rs, bitmap), parametros);
+                }
+            } finally {
+                consultas.release();
+            }
+
+            int[] periodoDoDia = calculo.periodos.periodoDoDia();
+            for (int v = de; v < ate; v++) {
+                int base = (v - de) * calculo.palavras;
+                int linhaCategoria = calculo.frota.categoria[v] * quantidadePeriodos;
+                int total = 0;
+                int maiorOcioso = 0;
+                int ultimoOcupado = -1;
+                for (int p = 0; p < calculo.palavras; p++) {
+                    long palavra = bitmap[base + p];
+                    while (palavra != 0) {
+                        int dia = (p << 6) + Long.numberOfTrailingZeros(palavra);
+                        palavra &= palavra - 1;
+                        int periodo = periodoDoDia[dia];
+                        ocupados[linhaCategoria + periodo]++;
+                        if (calculo.ocupadosPorVeiculoPeriodo != null) {
+                            calculo.ocupadosPorVeiculoPeriodo[v * quantidadePeriodos + periodo]++;
+                        }
+                        maiorOcioso = Math.max(maiorOcioso, dia - ultimoOcupado - 1);
+                        ultimoOcupado = dia;
+                        total++;
+                    }
+                }
+                calculo.diasOcupados[v] = total;
+                calculo.maiorPeriodoOcioso[v] = Math.max(maiorOcioso, calculo.dias - ultimoOcupado - 1);
+            }
+            return ocupados;
+        }
+
+        private void marcar(ResultSet rs, long[] bitmap) throws SQLException {
+            int posicao = Arrays.binarySearch(calculo.frota.ids, de, ate, rs.getLong(1));
+            if (posicao < 0) {
+                return; // Veículo de outra categoria dentro da faixa de ids
+            }
+            long retirada = rs.getObject(2, LocalDate.class).toEpochDay();
+            LocalDate devolucao = rs.getObject(3, LocalDate.class);
+            // Sem devolução: ocupado até o fim do intervalo analisado
+            long fimOcupacao = devolucao == null ? calculo.inicioEpoch + calculo.dias
+                    : Math.max(devolucao.toEpochDay(), retirada + 1);
+
+            int primeiro = (int) Math.max(0, retirada - calculo.inicioEpoch);
+            int ultimo = (int) Math.min(calculo.dias, fimOcupacao - calculo.inicioEpoch);
+            int base = (posicao - de) * calculo.palavras;
+            for (int dia = primeiro; dia < ultimo; dia++) {
+                bitmap[base + (dia >>> 6)] |= 1L << dia;
+            }
+        }
+    }
+
+    // ========== RESULTADO ==========
+
+    private UtilizacaoFrotaDTO montarResultado(LocalDate inicio, LocalDate fim, Granularidade granularidade,
+                                               Periodos periodos, Frota frota, Calculo calculo,
+                                               long[] ocupadosPorCategoria) {
+        int quantidadePeriodos = periodos.quantidade();
+        int[] veiculosPorCategoria = new int[frota.categorias.size()];
+        for (int v = 0; v < frota.tamanho; v++) {
+            veiculosPorCategoria[frota.categoria[v]]++;
+        }
+
+        long[] ocupadosFrota = new long[quantidadePeriodos];
+        Map<String, UtilizacaoFrotaDTO.Serie> porCategoria = new LinkedHashMap<>();
+        for (int c = 0; c < frota.categorias.size(); c++) {
+            long[] ocupados = Arrays.copyOfRange(ocupadosPorCategoria, c * quantidadePeriodos, (c + 1) * quantidadePeriodos);
+            for (int p = 0; p < quantidadePeriodos; p++) {
+                ocupadosFrota[p] += ocupados[p];
+            }
+            porCategoria.put(frota.categorias.get(c), criarSerie(veiculosPorCategoria[c], ocupados, periodos.dias()));
+        }
+
+        List<UtilizacaoFrotaDTO.UtilizacaoVeiculo> veiculos = null;
+        if (calculo.ocupadosPorVeiculoPeriodo != null) {
+            veiculos = new ArrayList<>(frota.tamanho);
+            for (int v = 0; v < frota.tamanho; v++) {
+                int ocupados = calculo.diasOcupados[v];
+                veiculos.add(new UtilizacaoFrotaDTO.UtilizacaoVeiculo(
+                        frota.ids[v], frota.categorias.get(frota.categoria[v]), ocupados, calculo.dias - ocupados,
+                        (double) ocupados / calculo.dias, calculo.maiorPeriodoOcioso[v],
+                        Arrays.copyOfRange(calculo.ocupadosPorVeiculoPeriodo, v * quantidadePeriodos,
+                                (v + 1) * quantidadePeriodos)));
+            }
+        }
+
+        return new UtilizacaoFrotaDTO(inicio, fim, granularidade.name(), frota.tamanho, periodos.inicios(),
+                periodos.dias(), criarSerie(frota.tamanho, ocupadosFrota, periodos.dias()), porCategoria, veiculos);
+    }
+
+    private static UtilizacaoFrotaDTO.Serie criarSerie(int veiculos, long[] ocupados, int[] diasPorPeriodo) {
+        long[] ociosos = new long[ocupados.length];
+        double[] taxa = new double[ocupados.length];
+        for (int p = 0; p < ocupados.length; p++) {
+            long capacidade = (long) veiculos * diasPorPeriodo[p];
+            ociosos[p] = capacidade - ocupados[p];
+            taxa[p] = capacidade == 0 ? 0 : (double) ocupados[p] / capacidade;
+        }
+        return new UtilizacaoFrotaDTO.Serie(veiculos, ocupados, ociosos, taxa);
+    }
+}
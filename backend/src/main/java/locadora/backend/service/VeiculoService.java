@@ -1,13 +1,27 @@
 package locadora.backend.service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import locadora.backend.dto.VeiculoCreateDTO;
+import locadora.backend.dto.FacetasVeiculoDTO;
+import locadora.backend.dto.PaginaDTO;
 import locadora.backend.dto.VeiculoDTO;
+import locadora.backend.dto.VeiculoFiltroDTO;
+import locadora.backend.dto.VeiculoLoteDisponibilidadeDTO;
+import locadora.backend.dto.VeiculoLotePrecoDTO;
+import locadora.backend.event.CatalogoAlteradoEvent;
+import locadora.backend.event.VeiculoAlteradoEvent;
 import locadora.backend.model.Veiculo;
 import locadora.backend.repository.VeiculoRepository;
 import lombok.RequiredArgsConstructor;
@@ -16,35 +30,153 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class VeiculoService {
 
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+
     private final VeiculoRepository veiculoRepository;
+    private final IndicePesquisaVeiculos indicePesquisa;
+    private final CacheCatalogoVeiculos cacheCatalogo;
+    private final FacetasVeiculos facetasVeiculos;
+    private final OcupacaoDiariaVeiculos ocupacaoDiaria;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<VeiculoDTO> listarTodos() {
-        return veiculoRepository.findAll()
-                .stream()
-                .map(VeiculoDTO::new)
-                .collect(Collectors.toList());
+        return veiculoRepository.listarProjetado();
     }
 
+    /**
+     * Página do catálogo com filtros aplicados no banco e paginação por cursor.
+     * O cursor guarda a última chave de ordenação e o último id entregues,
+     * então o custo de cada página não depende da posição nem do tamanho da frota.
+     */
     @Transactional(readOnly = true)
-    public List<VeiculoDTO> listarDisponiveis() {
-        return veiculoRepository.findByDisponivelTrue().stream()
-                .map(VeiculoDTO::new)
-                .collect(Collectors.toList());
+    public PaginaDTO<VeiculoDTO> listarPagina(VeiculoFiltroDTO filtro) {
+        String ordenarPor = filtro.getOrdenarPor() != null ? filtro.getOrdenarPor() : "id";
+        int tamanho = filtro.getTamanho() != null ? filtro.getTamanho() : 20;
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new RuntimeException("Tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+
+        String[] cursor = decodificarCursor(filtro.getCursor(), ordenarPor);
+        Long ultimoId = cursor != null ? Long.valueOf(cursor[2]) : null;
+        // Busca um item a mais para saber se existe próxima página
+        Limit limite = Limit.of(tamanho + 1);
+
+        List<VeiculoDTO> veiculos = switch (ordenarPor) {
+            case "id" -> veiculoRepository.buscarPaginaPorId(
+                    filtro.getCategoria(), filtro.getMarca(), filtro.getPrecoMin(), filtro.getPrecoMax(),
+                    filtro.getAnoMin(), filtro.getAnoMax(), filtro.getDisponivel(),
+                    ultimoId, limite);
+            case "preco" -> veiculoRepository.buscarPaginaPorPreco(
+                    filtro.getCategoria(), filtro.getMarca(), filtro.getPrecoMin(), filtro.getPrecoMax(),
+                    filtro.getAnoMin(), filtro.getAnoMax(), filtro.getDisponivel(),
+                    cursor != null ? new BigDecimal(cursor[1]) : null, ultimoId, limite);
+            case "ano" -> veiculoRepository.buscarPaginaPorAno(
+                    filtro.getCategoria(), filtro.getMarca(), filtro.getPrecoMin(), filtro.getPrecoMax(),
+                    filtro.getAnoMin(), filtro.getAnoMax(), filtro.getDisponivel(),
+                    cursor != null ? Integer.valueOf(cursor[1]) : null, ultimoId, limite);
+            default -> throw new RuntimeException("Ordenação inválida: use id, preco ou ano");
+        };
+
+        boolean temMais = veiculos.size() > tamanho;
+        List<VeiculoDTO> itens = temMais ? veiculos.subList(0, tamanho) : veiculos;
+
+        String proximoCursor = null;
+        if (temMais) {
+            VeiculoDTO ultimo = itens.get(itens.size() - 1);
+            String chave = switch (ordenarPor) {
+                case "preco" -> ultimo.getValorDiaria().toPlainString();
+                case "ano" -> String.valueOf(ultimo.getAno());
+                default -> String.valueOf(ultimo.getId());
+            };
+            proximoCursor = codificarCursor(ordenarPor, chave, ultimo.getId());
+        }
+
+        return new PaginaDTO<>(itens, proximoCursor, temMais);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Veículos livres em todo o período [inicio, fim) com os filtros do catálogo,
+     * respondido pelo mapa de ocupação diária (sem acesso ao banco). Paginado por id.
+     */
+    public PaginaDTO<VeiculoDTO> listarLivresNoPeriodo(LocalDate inicio, LocalDate fim, VeiculoFiltroDTO filtro) {
+        int tamanho = filtro.getTamanho() != null ? filtro.getTamanho() : 20;
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new RuntimeException("Tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        if (fim.isBefore(inicio)) {
+            throw new RuntimeException("Data final deve ser posterior à data inicial");
+        }
+        // Mesmo dia conta como uma diária, como nas locações
+        LocalDate fimExclusivo = fim.isAfter(inicio) ? fim : inicio.plusDays(1);
+        if (ChronoUnit.DAYS.between(inicio, fimExclusivo) > OcupacaoDiariaVeiculos.MAXIMO_DIAS_PERIODO) {
+            throw new RuntimeException("Período máximo de busca é de "
+                    + OcupacaoDiariaVeiculos.MAXIMO_DIAS_PERIODO + " dias");
+        }
+
+        String[] cursor = decodificarCursor(filtro.getCursor(), "id");
+        Long ultimoId = cursor != null ? Long.valueOf(cursor[2]) : null;
+
+        List<VeiculoDTO> veiculos = ocupacaoDiaria.buscarLivres(inicio, fimExclusivo, filtro, ultimoId, tamanho + 1);
+        boolean temMais = veiculos.size() > tamanho;
+        List<VeiculoDTO> itens = temMais ? veiculos.subList(0, tamanho) : veiculos;
+
+        String proximoCursor = null;
+        if (temMais) {
+            Long id = itens.get(itens.size() - 1).getId();
+            proximoCursor = codificarCursor("id", String.valueOf(id), id);
+        }
+        return new PaginaDTO<>(itens, proximoCursor, temMais);
+    }
+
+    /**
+     * Pesquisa textual no índice em memória (sem acesso ao banco), paginada.
+     * A ordem é por relevância, então o cursor guarda a posição do próximo item;
+     * alterações no catálogo entre páginas podem deslocar alguns resultados.
+     */
+    public PaginaDTO<VeiculoDTO> pesquisar(String texto, String categoria, boolean apenasDisponiveis,
+            String cursor, int limite) {
+        if (limite < 1 || limite > TAMANHO_MAXIMO_PAGINA) {
+            throw new RuntimeException("Limite deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        String[] partes = decodificarCursor(cursor, "pesquisa");
+        int deslocamento = partes != null ? Integer.parseInt(partes[1]) : 0;
+        if (deslocamento < 0) {
+            throw new RuntimeException("Cursor inválido");
+        }
+
+        // Busca um item a mais para saber se existe próxima página
+        List<VeiculoDTO> veiculos = indicePesquisa.pesquisar(texto, categoria, apenasDisponiveis,
+                deslocamento, limite + 1);
+        boolean temMais = veiculos.size() > limite;
+        List<VeiculoDTO> itens = temMais ? veiculos.subList(0, limite) : veiculos;
+
+        String proximoCursor = null;
+        if (temMais) {
+            int proximo = deslocamento + limite;
+            proximoCursor = codificarCursor("pesquisa", String.valueOf(proximo), itens.get(itens.size() - 1).getId());
+        }
+        return new PaginaDTO<>(itens, proximoCursor, temMais);
+    }
+
+    /**
+     * Contagens por categoria, marca, faixa de ano e faixa de preço (sem acesso ao banco)
+     */
+    public FacetasVeiculoDTO calcularFacetas(String categoria, String marca, String faixaAno,
+                                             String faixaPreco, Boolean disponivel) {
+        return facetasVeiculos.calcular(categoria, marca, faixaAno, faixaPreco, disponivel);
+    }
+
+    // Servido pelo cache; em caso de falha o repositório abre sua própria transação
     public VeiculoDTO buscarPorId(Long id) {
-        return veiculoRepository.findById(id)
-                .map(VeiculoDTO::new)
-                .orElseThrow(() -> new RuntimeException("Veículo não encontrado"));
+        return cacheCatalogo.buscarPorId(id, () -> veiculoRepository.buscarProjetadoPorId(id)
+                .orElseThrow(() -> new RuntimeException("Veículo não encontrado")));
     }
 
-    @Transactional(readOnly = true)
+    // Servido pelo cache; em caso de falha o repositório abre sua própria transação
     public List<VeiculoDTO> buscarPorCategoria(String categoria) {
-        return veiculoRepository.findByCategoria(categoria).stream()
-                .map(VeiculoDTO::new)
-                .collect(Collectors.toList());
+        return cacheCatalogo.buscarPorCategoria(categoria,
+                () -> veiculoRepository.listarProjetadoPorCategoria(categoria));
     }
 
     @Transactional
@@ -64,13 +196,16 @@ public class VeiculoService {
         veiculo.setDisponivel(true);
 
         veiculo = veiculoRepository.save(veiculo);
-        return new VeiculoDTO(veiculo);
+        VeiculoDTO criado = new VeiculoDTO(veiculo);
+        eventPublisher.publishEvent(new VeiculoAlteradoEvent(criado.getId(), null, criado));
+        return criado;
     }
 
     @Transactional
     public VeiculoDTO atualizar(Long id, VeiculoCreateDTO dto) {
         Veiculo veiculo = veiculoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Veículo não encontrado"));
+        VeiculoDTO anterior = new VeiculoDTO(veiculo);
 
         veiculo.setModelo(dto.getModelo());
         veiculo.setMarca(dto.getMarca());
@@ -80,23 +215,118 @@ public class VeiculoService {
         veiculo.setDescricao(dto.getDescricao());
 
         veiculo = veiculoRepository.save(veiculo);
-        return new VeiculoDTO(veiculo);
+        VeiculoDTO atualizado = new VeiculoDTO(veiculo);
+        eventPublisher.publishEvent(new VeiculoAlteradoEvent(id, anterior, atualizado));
+        return atualizado;
     }
 
     @Transactional
     public void deletar(Long id) {
-        if (!veiculoRepository.existsById(id)) {
-            throw new RuntimeException("Veículo não encontrado");
-        }
-        veiculoRepository.deleteById(id);
+        Veiculo veiculo = veiculoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Veículo não encontrado"));
+        VeiculoDTO anterior = new VeiculoDTO(veiculo);
+        veiculoRepository.delete(veiculo);
+        eventPublisher.publishEvent(new VeiculoAlteradoEvent(id, anterior, null));
     }
 
     @Transactional
     public void alterarDisponibilidade(Long id, Boolean disponivel) {
         Veiculo veiculo = veiculoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Veículo não encontrado"));
+        VeiculoDTO anterior = new VeiculoDTO(veiculo);
         veiculo.setDisponivel(disponivel);
-        veiculoRepository.save(veiculo);
+        veiculo = veiculoRepository.save(veiculo);
+        eventPublisher.publishEvent(new VeiculoAlteradoEvent(id, anterior, new VeiculoDTO(veiculo)));
+    }
+
+    // ========== OPERAÇÕES EM LOTE ==========
+
+    /**
+     * Altera a disponibilidade de vários veículos com um único UPDATE
+     */
+    @Transactional
+    public int alterarDisponibilidadeEmLote(VeiculoLoteDisponibilidadeDTO dto) {
+        boolean porIds = validarSelecaoLote(dto.getIds(), dto.getCategoria());
+        int atualizados = porIds
+                ? veiculoRepository.atualizarDisponibilidadePorIds(dto.getIds(), dto.getDisponivel())
+                : veiculoRepository.atualizarDisponibilidadePorCategoria(dto.getCategoria(), dto.getDisponivel());
+        publicarAlteracaoEmLote(atualizados, "lote-disponibilidade");
+        return atualizados;
     }
 
+    /**
+     * Define ou reajusta (percentual) o valor diário de vários veículos com um único UPDATE.
+     * O valor reajustado é arredondado para 2 casas (HALF_UP) no próprio UPDATE, como setScale(2, HALF_UP).
+     */
+    @Transactional
+    public int ajustarValorDiariaEmLote(VeiculoLotePrecoDTO dto) {
+        boolean porIds = validarSelecaoLote(dto.getIds(), dto.getCategoria());
+        if ((dto.getValor() == null) == (dto.getPercentual() == null)) {
+            throw new RuntimeException("Informe o valor OU o percentual de reajuste");
+        }
+
+        int atualizados;
+        if (dto.getValor() != null) {
+            BigDecimal valor = dto.getValor().setScale(2, RoundingMode.HALF_UP);
+            atualizados = porIds
+                    ? veiculoRepository.definirValorDiariaPorIds(dto.getIds(), valor)
+                    : veiculoRepository.definirValorDiariaPorCategoria(dto.getCategoria(), valor);
+        } else {
+            BigDecimal fator = BigDecimal.ONE.add(dto.getPercentual().divide(BigDecimal.valueOf(100), 6, RoundingMode.HALF_UP));
+            atualizados = porIds
+                    ? veiculoRepository.reajustarValorDiariaPorIds(dto.getIds(), fator)
+                    : veiculoRepository.reajustarValorDiariaPorCategoria(dto.getCategoria(), fator);
+        }
+        publicarAlteracaoEmLote(atualizados, "lote-valor-diaria");
+        return atualizados;
+    }
+
+    /**
+     * Retorna true se a seleção é por ids e false se é por categoria
+     */
+    private boolean validarSelecaoLote(List<Long> ids, String categoria) {
+        boolean temIds = ids != null && !ids.isEmpty();
+        boolean temCategoria = categoria != null && !categoria.isBlank();
+        if (temIds == temCategoria) {
+            throw new RuntimeException("Informe a lista de ids OU a categoria");
+        }
+        return temIds;
+    }
+
+    private void publicarAlteracaoEmLote(int atualizados, String motivo) {
+        if (atualizados > 0) {
+            eventPublisher.publishEvent(new CatalogoAlteradoEvent(motivo));
+        }
+    }
+
+    // ========== CURSOR ==========
+
+    private String codificarCursor(String ordenarPor, String chave, Long id) {
+        String conteudo = ordenarPor + ":" + chave + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodificarCursor(String cursor, String ordenarPor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = conteudo.split(":");
+            if (partes.length != 3 || !partes[0].equals(ordenarPor)) {
+                throw new IllegalArgumentException();
+            }
+            // Valida os tipos da chave de ordenação e do id
+            switch (ordenarPor) {
+                case "preco" -> new BigDecimal(partes[1]);
+                case "ano" -> Integer.valueOf(partes[1]);
+                default -> Long.valueOf(partes[1]);
+            }
+            Long.valueOf(partes[2]);
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
 }
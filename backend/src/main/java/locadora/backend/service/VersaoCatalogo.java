@@ -0,0 +1,53 @@
+package locadora.backend.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import locadora.backend.event.CatalogoAlteradoEvent;
+import locadora.backend.event.VeiculoAlteradoEvent;
+
+/**
+ * Versão do catálogo de veículos, usada como ETag forte das listagens públicas.
+ *
+ * A versão avança depois do commit de qualquer alteração de veículo ou de
+ * disponibilidade. O prefixo aleatório gerado na inicialização impede que uma
+ * ETag emitida antes de um reinício coincida com outra versão depois dele.
+ *
+ * Os listeners que mantêm caches e índices do catálogo rodam com {@link #ORDEM_DERIVADOS}
+ * e esta versão avança por último ({@link #ORDEM_VERSAO}): uma leitura que já vê a ETag
+ * nova nunca recebe o conteúdo anterior, que ficaria associado a ela no cliente.
+ */
+@Component
+public class VersaoCatalogo {
+
+    public static final int ORDEM_DERIVADOS = Ordered.HIGHEST_PRECEDENCE;
+    public static final int ORDEM_VERSAO = Ordered.LOWEST_PRECEDENCE;
+
+    private final String instancia = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong versao = new AtomicLong();
+
+    public String etag() {
+        return "\"" + instancia + "-" + versao.get() + "\"";
+    }
+
+    public void avancar() {
+        versao.incrementAndGet();
+    }
+
+    @Order(ORDEM_VERSAO)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarVeiculo(VeiculoAlteradoEvent evento) {
+        avancar();
+    }
+
+    @Order(ORDEM_VERSAO)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        avancar();
+    }
+}
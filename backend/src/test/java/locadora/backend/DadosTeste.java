@@ -0,0 +1,159 @@
+package locadora.backend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+
+/**
+ * Massa de dados dos testes de integração, gravada direto por JDBC (sem eventos nem caches).
+ *
+ * Placas e emails começam com o prefixo informado e os ids criados ficam registrados,
+ * então {@link #limpar()} remove só o que este teste criou, inclusive as locações
+ * e os contadores por usuário.
+ */
+public class DadosTeste {
+
+    // CPFs únicos na JVM, longe dos cadastrados pela aplicação
+    private static final AtomicLong PROXIMO_CPF = new AtomicLong(70_000_000_000L);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String prefixo;
+    private final SimpleJdbcInsert insercaoEndereco;
+    private final SimpleJdbcInsert insercaoUsuario;
+    private final SimpleJdbcInsert insercaoVeiculo;
+    private final SimpleJdbcInsert insercaoLocacao;
+
+    private final List<Long> veiculos = new ArrayList<>();
+    private final List<Long> usuarios = new ArrayList<>();
+    private final List<Long> enderecos = new ArrayList<>();
+
+    public DadosTeste(JdbcTemplate jdbcTemplate, String prefixo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.prefixo = prefixo;
+        this.insercaoEndereco = new SimpleJdbcInsert(jdbcTemplate).withTableName("enderecos")
+                .usingGeneratedKeyColumns("id");
+        this.insercaoUsuario = new SimpleJdbcInsert(jdbcTemplate).withTableName("usuarios")
+                .usingColumns("nome", "cpf", "email", "senha", "ativo", "is_funcionario", "endereco_id",
+                        "criado_em", "atualizado_em")
+                .usingGeneratedKeyColumns("id");
+        this.insercaoVeiculo = new SimpleJdbcInsert(jdbcTemplate).withTableName("veiculos")
+                .usingColumns("modelo", "marca", "placa", "ano", "categoria", "valor_diaria", "disponivel",
+                        "descricao", "versao")
+                .usingGeneratedKeyColumns("id");
+        this.insercaoLocacao = new SimpleJdbcInsert(jdbcTemplate).withTableName("locacoes")
+                .usingColumns("usuario_id", "veiculo_id", "data_retirada", "data_devolucao", "valor_total", "status")
+                .usingGeneratedKeyColumns("id");
+    }
+
+    /**
+     * Veículos com placa prefixo + sequencial e atributos variados (marca, categoria, ano e preço)
+     */
+    public List<Long> criarVeiculos(int quantidade) {
+        int inicio = veiculos.size();
+        List<Map<String, Object>> linhas = IntStream.range(inicio, inicio + quantidade)
+                .mapToObj(i -> Map.<String, Object>of(
+                        "modelo", "Modelo " + i,
+                        "marca", "Marca " + (i % 20),
+                        "placa", prefixo + String.format("%04d", i),
+                        "ano", 2015 + i % 10,
+                        "categoria", "Categoria " + (i % 5),
+                        "valor_diaria", BigDecimal.valueOf(100 + i % 300),
+                        "disponivel", true,
+                        "descricao", "Descrição do veículo " + i,
+                        "versao", 0))
+                .collect(Collectors.toList());
+        insercaoVeiculo.executeBatch(linhas.toArray(Map[]::new));
+
+        List<Long> criados = jdbcTemplate.queryForList(
+                "SELECT id FROM veiculos WHERE placa LIKE ? ORDER BY id", Long.class, prefixo + "%")
+                .subList(inicio, inicio + quantidade);
+        veiculos.addAll(criados);
+        return criados;
+    }
+
+    /**
+     * Clientes ativos com endereço e email prefixo + sequencial
+     */
+    public List<Long> criarClientes(int quantidade) {
+        List<Long> criados = new ArrayList<>();
+        int inicio = usuarios.size();
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            Long endereco = insercaoEndereco.executeAndReturnKey(Map.of(
+                    "cep", "01000000", "logradouro", "Rua Teste", "numero", String.valueOf(i),
+                    "bairro", "Centro", "cidade", "São Paulo", "estado", "SP")).longValue();
+            enderecos.add(endereco);
+
+            LocalDateTime agora = LocalDateTime.now();
+            criados.add(insercaoUsuario.executeAndReturnKey(Map.of(
+                    "nome", "Cliente " + i,
+                    "cpf", String.valueOf(PROXIMO_CPF.getAndIncrement()),
+                    "email", email(i),
+                    "senha", "x",
+                    "ativo", true,
+                    "is_funcionario", false,
+                    "endereco_id", endereco,
+                    "criado_em", agora,
+                    "atualizado_em", agora)).longValue());
+        }
+        usuarios.addAll(criados);
+        return criados;
+    }
+
+    public Long criarLocacaoAtiva(Long usuarioId, Long veiculoId, LocalDate retirada, LocalDate devolucao) {
+        return insercaoLocacao.executeAndReturnKey(Map.of(
+                "usuario_id", usuarioId,
+                "veiculo_id", veiculoId,
+                "data_retirada", retirada,
+                "data_devolucao", devolucao,
+                "valor_total", BigDecimal.valueOf(100),
+                "status", "ATIVA")).longValue();
+    }
+
+    /**
+     * Email do i-ésimo cliente criado por este conjunto de dados
+     */
+    public String email(int i) {
+        return prefixo.toLowerCase() + i + "@teste.com";
+    }
+
+    public List<Long> veiculos() {
+        return veiculos;
+    }
+
+    public List<Long> usuarios() {
+        return usuarios;
+    }
+
+    public void limpar() {
+        if (!veiculos.isEmpty()) {
+            String ids = juntar(veiculos);
+            jdbcTemplate.update("DELETE FROM locacoes WHERE veiculo_id IN (" + ids + ")");
+            jdbcTemplate.update("DELETE FROM veiculos WHERE id IN (" + ids + ")");
+        }
+        if (!usuarios.isEmpty()) {
+            String ids = juntar(usuarios);
+            jdbcTemplate.update("DELETE FROM locacoes WHERE usuario_id IN (" + ids + ")");
+            jdbcTemplate.update("DELETE FROM estatisticas_locacao_usuario WHERE usuario_id IN (" + ids + ")");
+            jdbcTemplate.update("DELETE FROM usuarios WHERE id IN (" + ids + ")");
+        }
+        if (!enderecos.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM enderecos WHERE id IN (" + juntar(enderecos) + ")");
+        }
+        veiculos.clear();
+        usuarios.clear();
+        enderecos.clear();
+    }
+
+    private static String juntar(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
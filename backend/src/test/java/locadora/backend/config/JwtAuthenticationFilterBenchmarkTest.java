@@ -0,0 +1,101 @@
+package locadora.backend.config;
+
+import static locadora.backend.config.JwtAuthenticationFilterTest.SEGREDO;
+import static locadora.backend.config.JwtAuthenticationFilterTest.criarJwtService;
+import static locadora.backend.config.JwtAuthenticationFilterTest.filtrar;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import locadora.backend.service.JwtService;
+
+/**
+ * Vazão do JwtAuthenticationFilter com poucos tokens repetidos (muitos usuários fazendo várias requisições):
+ * compara o fluxo antigo (três parses com chave recriada a cada chamada) com o parse único e com o cache
+ * de tokens verificados.
+ *
+ * Só mede e registra no log; fica fora do build padrão (tag benchmark). Para rodar:
+ * mvn test -Dtest=JwtAuthenticationFilterBenchmarkTest -Dtestes.excluidos=nenhum
+ */
+@Tag("benchmark")
+class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilterBenchmarkTest.class);
+
+    private static final int TOKENS = 200;
+    private static final int AQUECIMENTO = 5_000;
+    private static final int REQUISICOES = 100_000;
+    // O fluxo antigo é ordens de grandeza mais lento: amostra menor para o teste não demorar
+    private static final int REQUISICOES_ANTIGO = 10_000;
+
+    @AfterEach
+    void limparContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void vazaoDoFiltroComCacheDeTokens() throws Exception {
+        JwtService semCache = criarJwtService(0);
+        JwtService comCache = criarJwtService(10_000);
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < TOKENS; i++) {
+            tokens.add(comCache.generateToken("usuario" + i + "@x.com", (long) i, i % 10 == 0));
+        }
+
+        JwtAuthenticationFilter parseUnico = new JwtAuthenticationFilter(semCache);
+        JwtAuthenticationFilter cacheado = new JwtAuthenticationFilter(comCache);
+
+        double antigo = medir("antigo (3 parses)", REQUISICOES_ANTIGO, tokens, JwtAuthenticationFilterBenchmarkTest::autenticarComoAntes);
+        double unico = medir("parse único", REQUISICOES, tokens, token -> filtrar(parseUnico, token));
+        double comCacheOps = medir("parse único + cache", REQUISICOES, tokens, token -> filtrar(cacheado, token));
+
+        log.info("Filtro JWT: parse único {}x, com cache {}x em relação ao antigo",
+                String.format("%.1f", unico / antigo), String.format("%.1f", comCacheOps / antigo));
+    }
+
+    private interface Autenticacao {
+        Object executar(String token) throws Exception;
+    }
+
+    private static double medir(String nome, int requisicoes, List<String> tokens, Autenticacao autenticacao) throws Exception {
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            autenticacao.executar(tokens.get(i % tokens.size()));
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < requisicoes; i++) {
+            if (autenticacao.executar(tokens.get(i % tokens.size())) == null) {
+                throw new AssertionError("token não autenticado: " + nome);
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        double porSegundo = requisicoes / segundos;
+        log.info("Filtro JWT {}: {} requisições em {} s ({} req/s)", nome, requisicoes,
+                String.format("%.2f", segundos), String.format("%.0f", porSegundo));
+        return porSegundo;
+    }
+
+    // Reproduz o JwtService anterior: extractEmail, isTokenValid e extractRole, cada um com chave e parser novos
+    private static Object autenticarComoAntes(String token) {
+        String email = extrairComoAntes(token).getSubject();
+        boolean valido = extrairComoAntes(token).getExpiration().after(new java.util.Date());
+        String role = extrairComoAntes(token).get("role", String.class);
+        return valido && email != null ? role : null;
+    }
+
+    private static Claims extrairComoAntes(String token) {
+        Key chave = Keys.hmacShaKeyFor(SEGREDO.getBytes());
+        return Jwts.parserBuilder().setSigningKey(chave).build().parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,105 @@
+package locadora.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import locadora.backend.cache.CacheLocal;
+import locadora.backend.repository.RevogacaoAcessoRepository;
+import locadora.backend.service.JwtService;
+import locadora.backend.service.RevogacaoTokens;
+
+/**
+ * Autenticação pelo JwtAuthenticationFilter com o cache de tokens verificados:
+ * acerto no cache, token adulterado e token revogado depois de entrar no cache.
+ */
+class JwtAuthenticationFilterTest {
+
+    static final String SEGREDO = "segredo-do-benchmark-com-pelo-menos-256-bits-0123456789";
+    static final long EXPIRACAO = 3_600_000L;
+
+    @AfterEach
+    void limparContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void segundaRequisicaoUsaTokenEmCache() throws Exception {
+        JwtService jwtService = criarJwtService(10_000);
+        JwtAuthenticationFilter filtro = new JwtAuthenticationFilter(jwtService);
+        String token = jwtService.generateToken("cliente@x.com", 1L, false);
+
+        assertEquals("cliente@x.com", filtrar(filtro, token).getName());
+        CacheLocal.Estatisticas antes = jwtService.estatisticasCache();
+        assertEquals("cliente@x.com", filtrar(filtro, token).getName());
+        CacheLocal.Estatisticas depois = jwtService.estatisticasCache();
+
+        assertEquals(antes.acertos() + 1, depois.acertos());
+        assertEquals(antes.falhas(), depois.falhas());
+        assertEquals(1, depois.tamanho());
+    }
+
+    @Test
+    void tokenInvalidoNaoAutentica() throws Exception {
+        JwtService jwtService = criarJwtService(10_000);
+        JwtAuthenticationFilter filtro = new JwtAuthenticationFilter(jwtService);
+        String token = jwtService.generateToken("cliente@x.com", 1L, false);
+
+        Authentication autenticacao = filtrar(filtro, token);
+        assertEquals("cliente@x.com", autenticacao.getName());
+        assertEquals("ROLE_CLIENTE", autenticacao.getAuthorities().iterator().next().getAuthority());
+
+        // Assinatura adulterada não pode aproveitar a entrada em cache do token original
+        String adulterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertNull(filtrar(filtro, adulterado));
+        assertFalse(jwtService.verificar("nao.e.jwt").isPresent());
+    }
+
+    @Test
+    void tokenRevogadoNaoAutenticaMesmoEmCache() throws Exception {
+        RevogacaoTokens revogacoes = new RevogacaoTokens(mock(RevogacaoAcessoRepository.class), EXPIRACAO);
+        JwtService jwtService = criarJwtService(10_000, revogacoes);
+        JwtAuthenticationFilter filtro = new JwtAuthenticationFilter(jwtService);
+        String token = jwtService.generateToken("funcionario@x.com", 7L, true);
+        assertNotNull(filtrar(filtro, token));
+
+        revogacoes.revogar(7L);
+        assertNull(filtrar(filtro, token));
+
+        // Token emitido depois da revogação volta a autenticar
+        String novo = jwtService.generateToken("funcionario@x.com", 7L, false);
+        assertEquals("ROLE_CLIENTE", filtrar(filtro, novo).getAuthorities().iterator().next().getAuthority());
+    }
+
+    static Authentication filtrar(JwtAuthenticationFilter filtro, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/locacoes/minhas");
+        request.addHeader("Authorization", "Bearer " + token);
+        filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    static JwtService criarJwtService(int tamanhoCache) {
+        return criarJwtService(tamanhoCache, new RevogacaoTokens(mock(RevogacaoAcessoRepository.class), EXPIRACAO));
+    }
+
+    static JwtService criarJwtService(int tamanhoCache, RevogacaoTokens revogacoes) {
+        JwtService jwtService = new JwtService(revogacoes);
+        ReflectionTestUtils.setField(jwtService, "secret", SEGREDO);
+        ReflectionTestUtils.setField(jwtService, "expiration", EXPIRACAO);
+        ReflectionTestUtils.setField(jwtService, "tamanhoCache", tamanhoCache);
+        ReflectionTestUtils.invokeMethod(jwtService, "inicializar");
+        return jwtService;
+    }
+}
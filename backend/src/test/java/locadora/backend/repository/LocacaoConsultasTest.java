@@ -0,0 +1,129 @@
+package locadora.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import locadora.backend.DadosTeste;
+import locadora.backend.dto.LocacaoDTO;
+import locadora.backend.model.StatusLocacao;
+import locadora.backend.service.LocacaoService;
+
+/**
+ * Cada listagem de locações deve executar um número fixo de comandos SQL,
+ * independente de quantas locações (e de quantos veículos/usuários) existam.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LocacaoConsultasTest {
+
+    private static final int USUARIOS = 4;
+    private static final LocalDate INICIO = LocalDate.of(2045, 1, 1);
+
+    @Autowired
+    private LocacaoService locacaoService;
+
+    @Autowired
+    private LocacaoRepository locacaoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+    private DadosTeste dados;
+
+    @BeforeEach
+    void prepararDados() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+
+        dados = new DadosTeste(jdbcTemplate, "NMU");
+        dados.criarClientes(USUARIOS);
+    }
+
+    @AfterEach
+    void limparDados() {
+        dados.limpar();
+        estatisticas.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void listagensExecutamNumeroFixoDeComandos() {
+        criarLocacoes(USUARIOS);
+        long todasPoucas = contarComandos(() -> locacaoService.listarTodas());
+        long doUsuarioPoucas = contarComandos(this::listarDoUsuarioAutenticado);
+        long entidadesPoucas = contarComandos(() -> transactionTemplate.execute(status ->
+                locacaoRepository.findByStatus(StatusLocacao.ATIVA).stream()
+                        .map(LocacaoDTO::new).collect(Collectors.toList())));
+
+        criarLocacoes(USUARIOS * 20);
+        long todasMuitas = contarComandos(() -> locacaoService.listarTodas());
+        long doUsuarioMuitas = contarComandos(this::listarDoUsuarioAutenticado);
+        long entidadesMuitas = contarComandos(() -> transactionTemplate.execute(status ->
+                locacaoRepository.findByStatus(StatusLocacao.ATIVA).stream()
+                        .map(LocacaoDTO::new).collect(Collectors.toList())));
+
+        assertEquals(1, todasMuitas);
+        // Só as locações do usuário: o id vem do token, sem buscar o usuário
+        assertEquals(1, doUsuarioMuitas);
+        assertEquals(1, entidadesMuitas);
+        assertEquals(todasPoucas, todasMuitas);
+        assertEquals(doUsuarioPoucas, doUsuarioMuitas);
+        assertEquals(entidadesPoucas, entidadesMuitas);
+    }
+
+    @Test
+    void finalizarCarregaLocacaoComUmComando() {
+        Long id = criarLocacoes(1).get(0);
+
+        long comandos = contarComandos(() -> transactionTemplate.execute(status ->
+                new LocacaoDTO(locacaoRepository.buscarComAssociacoes(id).orElseThrow())));
+
+        assertEquals(1, comandos);
+    }
+
+    // Mesmo caminho de GET /api/locacoes/minhas e GET /api/usuarios/locacoes (id do UsuarioAutenticado)
+    private List<LocacaoDTO> listarDoUsuarioAutenticado() {
+        return locacaoService.listarPorUsuario(dados.usuarios().get(0));
+    }
+
+    private long contarComandos(Supplier<?> listagem) {
+        estatisticas.clear();
+        listagem.get();
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    /**
+     * Cada locação em um veículo próprio, distribuídas entre os usuários de teste
+     */
+    private List<Long> criarLocacoes(int quantidade) {
+        List<Long> usuarios = dados.usuarios();
+        List<Long> veiculos = dados.criarVeiculos(quantidade);
+        return IntStream.range(0, quantidade)
+                .mapToObj(i -> dados.criarLocacaoAtiva(usuarios.get(i % usuarios.size()), veiculos.get(i),
+                        INICIO, INICIO.plusDays(2)))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,87 @@
+package locadora.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import locadora.backend.DadosTeste;
+import locadora.backend.dto.VeiculoDTO;
+
+/**
+ * Compara a memória alocada ao listar veículos carregando entidades gerenciadas
+ * (findAll + construtor do DTO) e com a projeção direta para VeiculoDTO.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProjecaoAlocacaoTest {
+
+    private static final int TOTAL_VEICULOS = 5000;
+    private static final int REPETICOES = 5;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private DadosTeste dados;
+
+    @BeforeEach
+    void popularVeiculos() {
+        dados = new DadosTeste(jdbcTemplate, "ALO");
+        dados.criarVeiculos(TOTAL_VEICULOS);
+    }
+
+    @AfterEach
+    void limparVeiculos() {
+        dados.limpar();
+    }
+
+    @Test
+    void projecaoAlocaMenosQueEntidadesGerenciadas() {
+        Supplier<List<VeiculoDTO>> comEntidades = () -> transactionTemplate.execute(status ->
+                veiculoRepository.findAll().stream().map(VeiculoDTO::new).collect(Collectors.toList()));
+        Supplier<List<VeiculoDTO>> comProjecao = () -> transactionTemplate.execute(status ->
+                veiculoRepository.listarProjetado());
+
+        assertEquals(comEntidades.get().size(), comProjecao.get().size());
+
+        long bytesEntidades = medirAlocacao(comEntidades);
+        long bytesProjecao = medirAlocacao(comProjecao);
+
+        assertTrue(bytesProjecao < bytesEntidades,
+                "Projeção deveria alocar menos que a hidratação de entidades");
+    }
+
+    private long medirAlocacao(Supplier<List<VeiculoDTO>> consulta) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        // Aquecimento (JIT e cache de planos de consulta)
+        for (int i = 0; i < REPETICOES; i++) {
+            consulta.get();
+        }
+
+        long inicio = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < REPETICOES; i++) {
+            consulta.get();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - inicio) / REPETICOES;
+    }
+}
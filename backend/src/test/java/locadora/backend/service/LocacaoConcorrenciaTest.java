@@ -0,0 +1,198 @@
+package locadora.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import locadora.backend.DadosTeste;
+import locadora.backend.dto.LocacaoCreateDTO;
+import locadora.backend.exception.ConflitoException;
+
+/**
+ * Muitas threads disputando poucos veículos: toda tentativa termina criada ou em conflito
+ * e nenhum veículo fica com locações ativas sobrepostas no banco. Finalizar e cancelar a mesma
+ * locação ao mesmo tempo encerra uma única vez nos contadores e na receita.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LocacaoConcorrenciaTest {
+
+    private static final int THREADS = 32;
+    private static final int TENTATIVAS_POR_THREAD = 40;
+    private static final int VEICULOS_DISPUTADOS = 4;
+    private static final LocalDate INICIO = LocalDate.of(2040, 1, 1);
+    private static final int ENCERRAMENTOS_DISPUTADOS = 30;
+    private static final LocalDate INICIO_ENCERRAMENTOS = LocalDate.of(2042, 1, 1);
+
+    @Autowired
+    private LocacaoService locacaoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DadosTeste dados;
+    private List<Long> veiculos;
+    private List<Long> usuarios;
+
+    @BeforeEach
+    void prepararDados() {
+        dados = new DadosTeste(jdbcTemplate, "CONC");
+        veiculos = dados.criarVeiculos(VEICULOS_DISPUTADOS);
+        usuarios = dados.criarClientes(THREADS);
+    }
+
+    @AfterEach
+    void limparDados() {
+        dados.limpar();
+        jdbcTemplate.update("DELETE FROM receita_diaria WHERE dia BETWEEN ? AND ?",
+                INICIO_ENCERRAMENTOS, INICIO_ENCERRAMENTOS.plusDays(2L * ENCERRAMENTOS_DISPUTADOS));
+    }
+
+    @Test
+    void locacoesConcorrentesNaoSeSobrepoem() throws Exception {
+        AtomicInteger criadas = new AtomicInteger();
+        AtomicInteger conflitos = new AtomicInteger();
+        AtomicInteger erros = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            Long usuarioId = usuarios.get(t);
+            executor.execute(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < TENTATIVAS_POR_THREAD; i++) {
+                    LocacaoCreateDTO dto = new LocacaoCreateDTO();
+                    dto.setVeiculoId(veiculos.get(aleatorio.nextInt(veiculos.size())));
+                    dto.setDataRetirada(INICIO.plusDays(aleatorio.nextInt(120)));
+                    dto.setDataDevolucao(dto.getDataRetirada().plusDays(aleatorio.nextInt(1, 6)));
+                    try {
+                        locacaoService.criar(dto, usuarioId);
+                        criadas.incrementAndGet();
+                    } catch (ConflitoException e) {
+                        conflitos.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        erros.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        int total = THREADS * TENTATIVAS_POR_THREAD;
+        assertEquals(0, erros.get());
+        assertEquals(total, criadas.get() + conflitos.get());
+        assertTrue(criadas.get() > 0);
+        assertEquals(0, contarSobreposicoes());
+    }
+
+    @Test
+    void finalizarECancelarAoMesmoTempoEncerramUmaVez() throws Exception {
+        Long usuarioId = usuarios.get(0);
+        List<Long> locacoes = new ArrayList<>();
+        for (int i = 0; i < ENCERRAMENTOS_DISPUTADOS; i++) {
+            LocacaoCreateDTO dto = new LocacaoCreateDTO();
+            dto.setVeiculoId(veiculos.get(0));
+            dto.setDataRetirada(INICIO_ENCERRAMENTOS.plusDays(2L * i));
+            dto.setDataDevolucao(dto.getDataRetirada().plusDays(1));
+            locacoes.add(locacaoService.criar(dto, usuarioId).getId());
+        }
+
+        AtomicInteger encerradas = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (Long id : locacoes) {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Runnable> transicoes = List.of(() -> locacaoService.finalizar(id), () -> locacaoService.cancelar(id));
+            List<Future<?>> resultados = new ArrayList<>();
+            for (Runnable transicao : transicoes) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    try {
+                        transicao.run();
+                        encerradas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        recusadas.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> resultado : resultados) {
+                resultado.get(30, TimeUnit.SECONDS);
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(ENCERRAMENTOS_DISPUTADOS, encerradas.get());
+        assertEquals(ENCERRAMENTOS_DISPUTADOS, recusadas.get());
+
+        Map<String, Object> contadores = jdbcTemplate.queryForMap(
+                "SELECT locacoes_ativas, locacoes_finalizadas + locacoes_canceladas AS encerradas "
+                        + "FROM estatisticas_locacao_usuario WHERE usuario_id = ?", usuarioId);
+        assertEquals(0L, ((Number) contadores.get("locacoes_ativas")).longValue());
+        assertEquals(ENCERRAMENTOS_DISPUTADOS, ((Number) contadores.get("encerradas")).intValue());
+
+        Map<String, Long> receitaPorStatus = jdbcTemplate.query(
+                "SELECT status, SUM(quantidade) FROM receita_diaria WHERE dia BETWEEN ? AND ? GROUP BY status",
+                (rs, linha) -> Map.entry(rs.getString(1), rs.getLong(2)),
+                INICIO_ENCERRAMENTOS, INICIO_ENCERRAMENTOS.plusDays(2L * ENCERRAMENTOS_DISPUTADOS))
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertEquals(0L, receitaPorStatus.getOrDefault("ATIVA", 0L));
+        assertEquals(ENCERRAMENTOS_DISPUTADOS,
+                receitaPorStatus.getOrDefault("FINALIZADA", 0L) + receitaPorStatus.getOrDefault("CANCELADA", 0L));
+    }
+
+    private int contarSobreposicoes() {
+        String ids = veiculos.stream().map(String::valueOf).collect(Collectors.joining(","));
+        Map<Long, List<LocalDate[]>> periodos = jdbcTemplate.query(
+                "SELECT veiculo_id, data_retirada, data_devolucao FROM locacoes "
+                        + "WHERE status = 'ATIVA' AND veiculo_id IN (" + ids + ")",
+                (rs, linha) -> new Object[] {rs.getLong(1),
+                        new LocalDate[] {rs.getDate(2).toLocalDate(), rs.getDate(3).toLocalDate()}})
+                .stream()
+                .collect(Collectors.groupingBy(l -> (Long) l[0],
+                        Collectors.mapping(l -> (LocalDate[]) l[1], Collectors.toList())));
+
+        int sobreposicoes = 0;
+        for (List<LocalDate[]> doVeiculo : periodos.values()) {
+            doVeiculo.sort(Comparator.comparing(p -> p[0]));
+            for (int i = 1; i < doVeiculo.size(); i++) {
+                if (doVeiculo.get(i)[0].isBefore(doVeiculo.get(i - 1)[1])) {
+                    sobreposicoes++;
+                }
+            }
+        }
+        return sobreposicoes;
+    }
+}
@@ -42,6 +42,9 @@ export class Perfil implements OnInit {
   loadingEstatisticas = false;
   mostrarHistorico = false;
 
+  // Idempotency-Key por locação finalizada; mantida até o sucesso para que nova tentativa repita a mesma
+  private chavesFinalizacao = new Map<number, string>();
+
   constructor(
     private authService: Auth,
     private router: Router,
@@ -385,8 +388,13 @@ export class Perfil implements OnInit {
     }
 
     if (confirm(`Deseja finalizar esta locação e marcar o veículo como disponível?`)) {
-      this.locacaoService.finalizarLocacao(locacao.id).subscribe({
+      const id = locacao.id;
+      if (!this.chavesFinalizacao.has(id)) {
+        this.chavesFinalizacao.set(id, crypto.randomUUID());
+      }
+      this.locacaoService.finalizarLocacao(id, this.chavesFinalizacao.get(id)!).subscribe({
         next: () => {
+          this.chavesFinalizacao.delete(id);
           console.log('Locação finalizada com sucesso');
 
           if (locacao.veiculo?.id) {
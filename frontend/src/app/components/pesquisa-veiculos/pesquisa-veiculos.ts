@@ -19,10 +19,14 @@ export class PesquisaVeiculosComponent implements OnInit {
   userName: string | null = null;
   isAuthenticated = false;
 
-  veiculos: VeiculoDTO[] = [];
   veiculosFiltrados: VeiculoDTO[] = [];
   loading = false;
+  carregandoMais = false;
+  proximoCursor: string | null = null;
+  // Termo e categoria da pesquisa exibida: "carregar mais" continua a mesma consulta
+  private consultaAtual: { termo: string; categoria?: string } = { termo: '' };
   errorMessage = '';
+  private carregado = false;
 
   categorias: CategoriaVeiculo[] = ['Econômico', 'Intermediário', 'SUV', 'Luxo', 'Esportivo'];
   categoriaSelecionada: string = 'Todos';
@@ -45,11 +49,12 @@ export class PesquisaVeiculosComponent implements OnInit {
       this.userName = user?.nome || null;
     });
 
-    this.loadVeiculos();
-
     this.route.queryParams.subscribe(params => {
-      if (params['categoria']) {
-        this.categoriaSelecionada = params['categoria'];
+      const categoria = params['categoria'] || 'Todos';
+      // Evita pesquisar de novo quando a própria tela atualizou a URL
+      if (!this.carregado || categoria !== this.categoriaSelecionada) {
+        this.categoriaSelecionada = categoria;
+        this.carregado = true;
         this.aplicarFiltros();
       }
     });
@@ -64,10 +69,14 @@ export class PesquisaVeiculosComponent implements OnInit {
     this.errorMessage = '';
     this.cdr.markForCheck();
 
-    this.veiculoService.getVeiculosDisponiveis().subscribe({
-      next: (data) => {
-        this.veiculos = data || [];
-        this.veiculosFiltrados = data || [];
+    const categoria = this.categoriaSelecionada !== 'Todos' ? this.categoriaSelecionada : undefined;
+    this.consultaAtual = { termo: this.termoPesquisa, categoria };
+    this.proximoCursor = null;
+
+    this.veiculoService.pesquisarVeiculos(this.termoPesquisa, categoria).subscribe({
+      next: (pagina) => {
+        this.veiculosFiltrados = pagina?.itens || [];
+        this.proximoCursor = pagina?.temMais ? pagina.proximoCursor : null;
         this.loading = false;
         this.cdr.detectChanges();
       },
@@ -80,6 +89,32 @@ export class PesquisaVeiculosComponent implements OnInit {
     });
   }
 
+  /**
+   * Busca a próxima página da mesma pesquisa e acrescenta aos resultados
+   */
+  carregarMais(): void {
+    if (!this.proximoCursor || this.carregandoMais) {
+      return;
+    }
+    this.carregandoMais = true;
+    const { termo, categoria } = this.consultaAtual;
+
+    this.veiculoService.pesquisarVeiculos(termo, categoria, this.proximoCursor).subscribe({
+      next: (pagina) => {
+        this.veiculosFiltrados = [...this.veiculosFiltrados, ...(pagina?.itens || [])];
+        this.proximoCursor = pagina?.temMais ? pagina.proximoCursor : null;
+        this.carregandoMais = false;
+        this.cdr.detectChanges();
+      },
+      error: (error) => {
+        console.error('Erro ao carregar mais veículos:', error);
+        this.errorMessage = 'Erro ao carregar veículos. Tente novamente.';
+        this.carregandoMais = false;
+        this.cdr.detectChanges();
+      }
+    });
+  }
+
   filtrarPorCategoria(categoria: string): void {
     this.categoriaSelecionada = categoria;
     this.aplicarFiltros();
@@ -91,22 +126,8 @@ export class PesquisaVeiculosComponent implements OnInit {
   }
 
   private aplicarFiltros(): void {
-    let resultado = [...this.veiculos];
-
-    if (this.categoriaSelecionada !== 'Todos') {
-      resultado = resultado.filter(v => v.categoria === this.categoriaSelecionada);
-    }
-
-    if (this.termoPesquisa.trim()) {
-      const termo = this.termoPesquisa.toLowerCase();
-      resultado = resultado.filter(v =>
-        v.modelo.toLowerCase().includes(termo) ||
-        v.marca.toLowerCase().includes(termo) ||
-        v.categoria.toLowerCase().includes(termo)
-      );
-    }
-
-    this.veiculosFiltrados = resultado;
+    // A filtragem por categoria e texto é feita no servidor
+    this.loadVeiculos();
   }
 
   private atualizarURL(): void {
@@ -128,7 +149,7 @@ export class PesquisaVeiculosComponent implements OnInit {
   limparFiltros(): void {
     this.categoriaSelecionada = 'Todos';
     this.termoPesquisa = '';
-    this.veiculosFiltrados = [...this.veiculos];
+    this.loadVeiculos();
     
     this.router.navigate([], {
       relativeTo: this.route,
@@ -40,6 +40,9 @@ export class VeiculoDetalhesComponent implements OnInit, OnDestroy {
   // Data mínima (hoje)
   dataMinima: string = '';
 
+  // Idempotency-Key da locação em andamento; reaproveitada enquanto o usuário repete o mesmo pedido
+  private tentativaLocacao: { corpo: string; chave: string } | null = null;
+
   private destroy$ = new Subject<void>();
 
   constructor(
@@ -200,10 +203,16 @@ getImagemVeiculo(veiculo: VeiculoDTO): string {
       observacoes: this.observacoes || undefined
     };
 
-    this.locacaoService.criarLocacao(locacao)
+    const corpo = JSON.stringify(locacao);
+    if (this.tentativaLocacao?.corpo !== corpo) {
+      this.tentativaLocacao = { corpo, chave: crypto.randomUUID() };
+    }
+
+    this.locacaoService.criarLocacao(locacao, this.tentativaLocacao.chave)
       .pipe(takeUntil(this.destroy$))
       .subscribe({
         next: (response) => {
+          this.tentativaLocacao = null;
           this.successMessage = 'Locação realizada com sucesso!';
           this.loading = false;
           this.cdr.detectChanges();
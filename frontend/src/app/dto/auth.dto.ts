@@ -22,6 +22,7 @@ export interface RegisterRequest {
 
 export interface AuthResponse {
   token: string;
+  refreshToken: string;
   tipo: string;
   id: number;
   nome: string;
@@ -45,4 +46,5 @@ export interface EstatisticasDTO {
   locacoesAtivas: number;
   locacoesFinalizadas: number;
   valorTotalGasto: number;
+  ultimaLocacao?: string | null;
 }
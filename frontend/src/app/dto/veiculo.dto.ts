@@ -20,4 +20,11 @@ export interface VeiculoCreateDTO {
   descricao: string;
 }
 
+// Página da pesquisa: repasse proximoCursor para buscar os resultados seguintes
+export interface PaginaVeiculosDTO {
+  itens: VeiculoDTO[];
+  proximoCursor: string | null;
+  temMais: boolean;
+}
+
 export type CategoriaVeiculo = 'Econômico' | 'Intermediário' | 'SUV' | 'Luxo' | 'Esportivo';
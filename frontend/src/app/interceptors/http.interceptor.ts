@@ -1,22 +1,47 @@
-import { HttpInterceptorFn } from '@angular/common/http';
+import { HttpErrorResponse, HttpInterceptorFn, HttpRequest } from '@angular/common/http';
 import { inject } from '@angular/core';
+import { catchError, switchMap, throwError } from 'rxjs';
+import { Auth } from '../services/auth';
 import { Jwt } from '../services/jwt';
 
 export const authInterceptor: HttpInterceptorFn = (req, next) => {
   const jwtService = inject(Jwt);
+  const auth = inject(Auth);
   const token = jwtService.getToken();
 
   console.log('🔐 Interceptor chamado para:', req.url);
   console.log('📝 Token encontrado:', token ? 'SIM' : 'NÃO');
 
-  if (token) {
-    const cloned = req.clone({
-      headers: req.headers.set('Authorization', `Bearer ${token}`)
-    });
-    console.log('✅ Token adicionado ao header');
-    return next(cloned);
+  if (!token) {
+    console.log('⚠️ Requisição sem token');
+    return next(req);
   }
 
-  console.log('⚠️ Requisição sem token');
-  return next(req);
+  // Token de acesso (curto) já vencido: renova antes de enviar
+  if (jwtService.isTokenExpired() && jwtService.getRefreshToken()) {
+    console.log('🔄 Token expirado, renovando sessão');
+    return auth.renovarSessao().pipe(
+      switchMap(response => next(comToken(req, response.token)))
+    );
+  }
+
+  console.log('✅ Token adicionado ao header');
+  return next(comToken(req, token)).pipe(
+    catchError((error: HttpErrorResponse) => {
+      // 401: token revogado (ex.: papel alterado) ou vencido no caminho; renova uma vez e repete
+      if (error.status === 401 && jwtService.getRefreshToken()) {
+        console.log('🔄 Token recusado, renovando sessão');
+        return auth.renovarSessao().pipe(
+          switchMap(response => next(comToken(req, response.token)))
+        );
+      }
+      return throwError(() => error);
+    })
+  );
 };
+
+function comToken(req: HttpRequest<unknown>, token: string): HttpRequest<unknown> {
+  return req.clone({
+    headers: req.headers.set('Authorization', `Bearer ${token}`)
+  });
+}
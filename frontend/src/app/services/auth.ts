@@ -1,8 +1,8 @@
-import { HttpClient } from '@angular/common/http';
+import { HttpBackend, HttpClient } from '@angular/common/http';
 import { Injectable } from '@angular/core';
 import { Jwt } from './jwt';
 import { Router } from '@angular/router';
-import { BehaviorSubject, Observable, tap } from 'rxjs';
+import { BehaviorSubject, Observable, catchError, defer, finalize, firstValueFrom, shareReplay, tap, throwError } from 'rxjs';
 import { AuthResponse, EstatisticasDTO, LoginRequest, RegisterRequest } from '../dto/auth.dto';
 import { Usuario, UsuarioPerfil } from '../models/user.model';
 import { LocacaoDTO } from './locacao';  // ✅ IMPORT CORRETO
@@ -16,16 +16,30 @@ export class Auth {
   private currentUserSubject = new BehaviorSubject<Usuario | null>(null);
   public currentUser$ = this.currentUserSubject.asObservable();
 
+  // Sem interceptors: refresh e logout não podem disparar uma nova renovação
+  private httpSemInterceptor: HttpClient;
+  private renovacaoEmAndamento: Observable<AuthResponse> | null = null;
+
+  // Web Lock compartilhado pelas abas: uma renova por vez e as demais aproveitam o resultado
+  private static readonly TRAVA_RENOVACAO = 'locadora-renovacao-sessao';
+
   constructor(
     private http: HttpClient,
     private jwtService: Jwt,
-    private router: Router
+    private router: Router,
+    backend: HttpBackend
   ) {
+    this.httpSemInterceptor = new HttpClient(backend);
     this.loadCurrentUser();
+    // Login, renovação e logout feitos em outra aba chegam por aqui
+    window.addEventListener('storage', evento => {
+      if (evento.key === 'currentUser' || evento.key === null) {
+        this.currentUserSubject.next(evento.newValue ? JSON.parse(evento.newValue) : null);
+      }
+    });
   }
   private loadCurrentUser(): void {
-    const token = this.jwtService.getToken();
-    if (token && !this.jwtService.isTokenExpired()) {
+    if (this.isAuthenticated()) {
       const userData = localStorage.getItem('currentUser');
       if (userData) {
         this.currentUserSubject.next(JSON.parse(userData));
@@ -69,8 +83,64 @@ export class Auth {
     return this.http.get<EstatisticasDTO>(`${this.usuariosUrl}/estatisticas`);
   }
 
+  /**
+   * Troca o refresh token por um novo par de tokens (POST /api/auth/refresh).
+   * Chamadas simultâneas compartilham a mesma renovação; se falhar, a sessão é encerrada.
+   * Entre abas, a renovação roda sob um Web Lock: quem espera e encontra outro refresh token
+   * no localStorage usa o par já renovado pela outra aba em vez de reapresentar o antigo.
+   */
+  renovarSessao(): Observable<AuthResponse> {
+    const refreshToken = this.jwtService.getRefreshToken();
+    if (!refreshToken) {
+      return throwError(() => new Error('Sessão sem refresh token'));
+    }
+    if (!this.renovacaoEmAndamento) {
+      this.renovacaoEmAndamento = defer(() => this.renovarEntreAbas(refreshToken))
+        .pipe(
+          tap(response => this.handleAuthResponse(response)),
+          catchError(error => {
+            this.encerrarSessaoLocal();
+            this.router.navigate(['/home']);
+            return throwError(() => error);
+          }),
+          finalize(() => this.renovacaoEmAndamento = null),
+          shareReplay(1)
+        );
+    }
+    return this.renovacaoEmAndamento;
+  }
+
+  private renovarEntreAbas(refreshToken: string): Promise<AuthResponse> {
+    const renovar = () => {
+      const atual = this.jwtService.getRefreshToken();
+      if (atual && atual !== refreshToken) {
+        return Promise.resolve(this.sessaoAtual(atual));
+      }
+      return firstValueFrom(this.httpSemInterceptor.post<AuthResponse>(`${this.apiUrl}/refresh`, { refreshToken }));
+    };
+    // Sem Web Locks (navegadores antigos) vale a carência do servidor para renovações quase juntas
+    return navigator.locks ? navigator.locks.request(Auth.TRAVA_RENOVACAO, renovar) : renovar();
+  }
+
+  // Par de tokens gravado por outra aba, no formato da resposta do servidor
+  private sessaoAtual(refreshToken: string): AuthResponse {
+    const usuario: Usuario = JSON.parse(localStorage.getItem('currentUser') ?? 'null');
+    const expiracao = this.jwtService.getTokenExpiration();
+    return {
+      token: this.jwtService.getToken()!,
+      refreshToken,
+      tipo: 'Bearer',
+      id: usuario?.id,
+      nome: usuario?.nome,
+      email: usuario?.email,
+      isFuncionario: usuario?.isFuncionario,
+      expiresIn: expiracao === null ? 0 : Math.max(0, expiracao - Date.now())
+    } as AuthResponse;
+  }
+
   private handleAuthResponse(response: AuthResponse): void {
     this.jwtService.saveToken(response.token);
+    this.jwtService.saveRefreshToken(response.refreshToken);
     const userData: Usuario = {
       id: response.id,
       nome: response.nome,
@@ -82,15 +152,25 @@ export class Auth {
   }
 
   logout(): void {
+    const refreshToken = this.jwtService.getRefreshToken();
+    if (refreshToken) {
+      // Invalida o refresh token no servidor; a saída local não depende da resposta
+      this.httpSemInterceptor.post(`${this.apiUrl}/logout`, { refreshToken }).subscribe({ error: () => {} });
+    }
+    this.encerrarSessaoLocal();
+    this.router.navigate(['/home']);
+  }
+
+  private encerrarSessaoLocal(): void {
     this.jwtService.destroyToken();
     localStorage.removeItem('currentUser');
     this.currentUserSubject.next(null);
-    this.router.navigate(['/home']);
   }
 
+  // Token de acesso vencido ainda conta como sessão enquanto houver refresh token para renová-lo
   isAuthenticated(): boolean {
     const token = this.jwtService.getToken();
-    return !!token && !this.jwtService.isTokenExpired();
+    return !!token && (!this.jwtService.isTokenExpired() || !!this.jwtService.getRefreshToken());
   }
 
   getCurrentUser(): Usuario | null {
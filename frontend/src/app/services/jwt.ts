@@ -12,20 +12,34 @@ export class Jwt {
     localStorage.setItem('token', token);
   }
 
+  getRefreshToken(): string | null {
+    return localStorage.getItem('refreshToken');
+  }
+
+  saveRefreshToken(refreshToken: string): void {
+    localStorage.setItem('refreshToken', refreshToken);
+  }
+
   destroyToken(): void {
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
   }
 
   isTokenExpired(): boolean {
+    const expiry = this.getTokenExpiration();
+    return expiry === null || Date.now() > expiry;
+  }
+
+  // Instante (ms) em que o token de acesso expira; null se ausente ou ilegível
+  getTokenExpiration(): number | null {
     const token = this.getToken();
-    if (!token) return true;
+    if (!token) return null;
 
     try {
       const payload = JSON.parse(atob(token.split('.')[1]));
-      const expiry = payload.exp * 1000;
-      return Date.now() > expiry;
+      return payload.exp * 1000;
     } catch (e) {
-      return true;
+      return null;
     }
   }
 }
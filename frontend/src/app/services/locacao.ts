@@ -1,5 +1,5 @@
 import { Injectable } from '@angular/core';
-import { HttpClient, HttpHeaders } from '@angular/common/http';
+import { HttpClient, HttpHeaders, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 
 // DTOs
@@ -23,6 +23,20 @@ export interface LocacaoDTO {
 
 export type StatusLocacao = 'ATIVA' | 'FINALIZADA' | 'CANCELADA';
 
+// Página do histórico paginada por cursor: repasse proximoCursor para a página seguinte
+export interface PaginaLocacoesDTO {
+  itens: LocacaoDTO[];
+  proximoCursor: string | null;
+  temMais: boolean;
+}
+
+export interface FiltroHistoricoLocacoes {
+  retiradaDe?: string;
+  retiradaAte?: string;
+  cursor?: string;
+  tamanho?: number;
+}
+
 export interface ResumoLocacaoDTO {
   total: number;
   ativas: number;
@@ -47,9 +61,15 @@ export class LocacaoService {
     });
   }
 
-  criarLocacao(locacao: LocacaoCreateDTO): Observable<LocacaoDTO> {
+  // A chave identifica a ação do usuário: o componente a gera uma vez e repete a mesma em novas
+  // tentativas, para que o servidor devolva a resposta gravada em vez de executar de novo
+  private getHeadersIdempotentes(chave: string): HttpHeaders {
+    return this.getHeaders().set('Idempotency-Key', chave);
+  }
+
+  criarLocacao(locacao: LocacaoCreateDTO, chave: string): Observable<LocacaoDTO> {
     return this.http.post<LocacaoDTO>(this.apiUrl, locacao, {
-      headers: this.getHeaders()
+      headers: this.getHeadersIdempotentes(chave)
     });
   }
 
@@ -59,16 +79,28 @@ export class LocacaoService {
     });
   }
 
-  getLocacoesAtivas(): Observable<LocacaoDTO[]> {
-    return this.http.get<LocacaoDTO[]>(`${this.apiUrl}/minhas/ativas`, {
-      headers: this.getHeaders()
+  getLocacoesAtivas(filtro: FiltroHistoricoLocacoes = {}): Observable<PaginaLocacoesDTO> {
+    return this.http.get<PaginaLocacoesDTO>(`${this.apiUrl}/minhas/ativas`, {
+      headers: this.getHeaders(),
+      params: this.montarParams(filtro)
     });
   }
 
-  getLocacoesFinalizadas(): Observable<LocacaoDTO[]> {
-    return this.http.get<LocacaoDTO[]>(`${this.apiUrl}/minhas/finalizadas`, {
-      headers: this.getHeaders()
+  getLocacoesFinalizadas(filtro: FiltroHistoricoLocacoes = {}): Observable<PaginaLocacoesDTO> {
+    return this.http.get<PaginaLocacoesDTO>(`${this.apiUrl}/minhas/finalizadas`, {
+      headers: this.getHeaders(),
+      params: this.montarParams(filtro)
+    });
+  }
+
+  private montarParams(filtro: FiltroHistoricoLocacoes): HttpParams {
+    let params = new HttpParams();
+    Object.entries(filtro).forEach(([chave, valor]) => {
+      if (valor !== undefined && valor !== null && valor !== '') {
+        params = params.set(chave, String(valor));
+      }
     });
+    return params;
   }
 
   getLocacaoById(id: number): Observable<LocacaoDTO> {
@@ -77,19 +109,19 @@ export class LocacaoService {
     });
   }
 
-  finalizarLocacao(id: number): Observable<LocacaoDTO> {
+  finalizarLocacao(id: number, chave: string): Observable<LocacaoDTO> {
     return this.http.patch<LocacaoDTO>(
       `${this.apiUrl}/${id}/finalizar`,
       null,
-      { headers: this.getHeaders() }
+      { headers: this.getHeadersIdempotentes(chave) }
     );
   }
 
-  cancelarLocacao(id: number): Observable<LocacaoDTO> {
+  cancelarLocacao(id: number, chave: string): Observable<LocacaoDTO> {
     return this.http.patch<LocacaoDTO>(
       `${this.apiUrl}/${id}/cancelar`,
       null,
-      { headers: this.getHeaders() }
+      { headers: this.getHeadersIdempotentes(chave) }
     );
   }
 
@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { VeiculoCreateDTO, VeiculoDTO } from '../dto/veiculo.dto';
+import { PaginaVeiculosDTO, VeiculoCreateDTO, VeiculoDTO } from '../dto/veiculo.dto';
 
 @Injectable({
   providedIn: 'root',
@@ -25,6 +25,24 @@ export class VeiculoService {
     return this.http.get<VeiculoDTO[]>(`${this.apiUrl}/disponiveis`);
   }
 
+  /**
+   * Pesquisa veículos disponíveis por texto e categoria no servidor (Público)
+   * Paginada: passe o proximoCursor da página anterior para continuar
+   */
+  pesquisarVeiculos(termo: string, categoria?: string, cursor?: string | null): Observable<PaginaVeiculosDTO> {
+    let params = new HttpParams();
+    if (termo.trim()) {
+      params = params.set('q', termo.trim());
+    }
+    if (categoria) {
+      params = params.set('categoria', categoria);
+    }
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<PaginaVeiculosDTO>(`${this.apiUrl}/pesquisa`, { params });
+  }
+
   /**
    * Busca veículo por ID (Público)
    */